@@ -9,7 +9,8 @@ version = "0.0.1-SNAPSHOT"
 
 java {
     toolchain {
-        languageVersion = JavaLanguageVersion.of(17)
+        // 默认 Java 17；使用 ./gradlew -PjavaVersion=21 构建可启用虚拟线程（async.mode: virtual）
+        languageVersion = JavaLanguageVersion.of((findProperty("javaVersion") as String? ?: "17").toInt())
     }
 }
 
@@ -36,6 +37,9 @@ dependencies {
     // OpenAPI 文档
     implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.3.0")
     
+    // 本地缓存
+    implementation("com.github.ben-manes.caffeine:caffeine")
+    
     // 工具类
     compileOnly("org.projectlombok:lombok")
     annotationProcessor("org.projectlombok:lombok")
@@ -45,13 +49,43 @@ dependencies {
     
     // 数据库
     runtimeOnly("com.mysql:mysql-connector-j")
+    // 数据库版本迁移
+    implementation("org.flywaydb:flyway-core")
+    implementation("org.flywaydb:flyway-mysql")
     
     // 测试
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testImplementation("org.springframework.security:spring-security-test")
+    testImplementation("com.icegreen:greenmail-junit5:2.0.1")
+    testRuntimeOnly("com.h2database:h2")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
 tasks.withType<Test> {
     useJUnitPlatform()
 }
+
+tasks.test {
+    useJUnitPlatform {
+        excludeTags("benchmark")
+    }
+}
+
+// 压测：./gradlew benchmark，公开接口压测的虚拟线程模式加 -PjavaVersion=21 -PvirtualThreads=true
+tasks.register<Test>("benchmark") {
+    description = "Runs the benchmarks."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("benchmark")
+    }
+    systemProperty("benchmark.virtual-threads", findProperty("virtualThreads") ?: "false")
+    listOf("benchmark.requests", "benchmark.concurrency").forEach { key ->
+        System.getProperty(key)?.let { systemProperty(key, it) }
+    }
+    testLogging {
+        showStandardStreams = true
+    }
+    outputs.upToDateWhen { false }
+}
@@ -1,7 +1,13 @@
 package com.yiyunnetwork.order.config;
 
+import com.yiyunnetwork.order.util.ConcurrencyLimitedExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
@@ -11,16 +17,59 @@ import java.util.concurrent.ThreadPoolExecutor;
 /**
  * 异步任务配置
  * 提供线程池用于处理异步任务
+ * <p>
+ * async.mode=platform（默认）使用平台线程池；async.mode=virtual 每个任务一个虚拟线程，需要 Java 21
+ * （使用 ./gradlew -PjavaVersion=21 构建）。两种模式下邮件、数据库延迟写入、验证码备份、注销令牌加入黑名单
+ * 各自有独立的并发上限和等待队列，队列满时拒绝任务而不是在请求线程中执行。
+ * 这几类任务运行在专用的执行器上，线程数等于各类并发上限之和，不与通用线程池争用；
+ * 通用线程池饱和时同样拒绝任务，不会退回到提交线程中执行
  */
+@Slf4j
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
+    @Value("${async.mode:platform}")
+    private String mode; // platform 或 virtual
+    
+    @Value("${async.queue-capacity:1000}")
+    private int queueCapacity; // 每种任务的等待队列容量
+    
+    @Value("${email-outbox.pool-size:2}")
+    private int emailConcurrency; // 邮件投递的最大并发数
+    
+    @Value("${async.limits.write-behind:2}")
+    private int writeBehindConcurrency; // 数据库延迟写入的最大并发数
+    
+    @Value("${async.limits.verification-code:4}")
+    private int verificationCodeConcurrency; // 验证码备份的最大并发数
+    
+    @Value("${async.limits.token-blacklist:2}")
+    private int tokenBlacklistConcurrency; // 注销时令牌加入黑名单的最大并发数
+    
+    @Value("${order-events.send-threads:4}")
+    private int orderEventThreads; // 平台线程模式下写出SSE事件的线程数
+    
+    @Value("${order-events.max-connections:10000}")
+    private int orderEventConnections; // 单节点最多保持的SSE连接数，每个连接最多排队一个写出任务
+
     /**
      * 通用任务线程池
      */
     @Bean("taskExecutor")
     public TaskExecutor taskExecutor() {
+        if ("virtual".equals(mode)) {
+            if (Runtime.version().feature() < 21) {
+                throw new IllegalStateException("async.mode=virtual 需要 Java 21 及以上版本");
+            }
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("task-vt-");
+            executor.setVirtualThreads(true);
+            // 关闭时等待正在执行的任务完成
+            executor.setTaskTerminationTimeout(60_000);
+            log.info("Async tasks run on virtual threads");
+            return executor;
+        }
+        
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         // 核心线程数
         executor.setCorePoolSize(5);
@@ -30,8 +79,8 @@ public class AsyncConfig {
         executor.setQueueCapacity(100);
         // 线程名前缀
         executor.setThreadNamePrefix("task-");
-        // 拒绝策略：抛出异常
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        // 拒绝策略：抛出异常（TaskRejectedException），不在提交线程中执行
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
         // 等待所有任务完成后再关闭线程池
         executor.setWaitForTasksToCompleteOnShutdown(true);
         // 等待时间（默认为0，此时立即停止），并没等待xx秒后强制停止
@@ -40,4 +89,108 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 按类型限流的任务的底层执行器
+     * 各类任务取得并发额度后才提交到这里，同时运行的任务不超过线程数，队列只用于额度释放与线程归还之间的短暂交替；
+     * 仍被拒绝时抛出异常并计入 executor.tasks.rejected，不在提交线程中执行
+     */
+    @Bean("limitedTaskDelegate")
+    public TaskExecutor limitedTaskDelegate() {
+        if ("virtual".equals(mode)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("limited-vt-");
+            executor.setVirtualThreads(true);
+            executor.setTaskTerminationTimeout(60_000);
+            return executor;
+        }
+        
+        int threads = emailConcurrency + writeBehindConcurrency + verificationCodeConcurrency
+                + tokenBlacklistConcurrency;
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads);
+        executor.setThreadNamePrefix("limited-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * SSE事件写出，与调度线程和 Redis 监听线程分开，慢客户端只占用这里的线程
+     */
+    @Bean("orderEventExecutor")
+    public TaskExecutor orderEventExecutor() {
+        if ("virtual".equals(mode)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("sse-vt-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+        
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(orderEventThreads);
+        executor.setMaxPoolSize(orderEventThreads);
+        executor.setQueueCapacity(orderEventConnections);
+        executor.setThreadNamePrefix("sse-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * 表结构变更和历史数据迁移（如订单字段生成列、字段值迁移）
+     * 单个平台线程串行执行，DDL 和长时间的迁移不占用其他执行器
+     */
+    @Bean("schemaMigrationExecutor")
+    public TaskExecutor schemaMigrationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("schema-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * 邮件投递，并发数即同时使用的SMTP连接数
+     */
+    @Bean("emailExecutor")
+    public ConcurrencyLimitedExecutor emailExecutor(@Qualifier("limitedTaskDelegate") TaskExecutor delegate,
+                                                    MeterRegistry meterRegistry) {
+        return new ConcurrencyLimitedExecutor("email", delegate, emailConcurrency, queueCapacity, meterRegistry);
+    }
+    
+    /**
+     * 数据库延迟写入（如最后登录时间批量更新）
+     */
+    @Bean("writeBehindExecutor")
+    public ConcurrencyLimitedExecutor writeBehindExecutor(@Qualifier("limitedTaskDelegate") TaskExecutor delegate,
+                                                          MeterRegistry meterRegistry) {
+        return new ConcurrencyLimitedExecutor("write-behind", delegate, writeBehindConcurrency, queueCapacity,
+                meterRegistry);
+    }
+    
+    /**
+     * 验证码数据库备份
+     */
+    @Bean("verificationCodeExecutor")
+    public ConcurrencyLimitedExecutor verificationCodeExecutor(@Qualifier("limitedTaskDelegate") TaskExecutor delegate,
+                                                               MeterRegistry meterRegistry) {
+        return new ConcurrencyLimitedExecutor("verification-code", delegate, verificationCodeConcurrency,
+                queueCapacity, meterRegistry);
+    }
+    
+    /**
+     * 注销时将令牌加入黑名单
+     */
+    @Bean("tokenBlacklistExecutor")
+    public ConcurrencyLimitedExecutor tokenBlacklistExecutor(@Qualifier("limitedTaskDelegate") TaskExecutor delegate,
+                                                             MeterRegistry meterRegistry) {
+        return new ConcurrencyLimitedExecutor("token-blacklist", delegate, tokenBlacklistConcurrency, queueCapacity,
+                meterRegistry);
+    }
+}
@@ -0,0 +1,43 @@
+package com.yiyunnetwork.order.config;
+
+import com.yiyunnetwork.order.util.SemaphoreGuardedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 数据源并发保护配置
+ * 虚拟线程模式下请求数不再受Tomcat线程数限制，开启后以信号量（许可数 = Hikari 最大连接数）
+ * 控制同时借出的连接数，多余请求在信号量上公平排队
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.guard.enabled", havingValue = "true")
+public class DataSourceGuardConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourceGuardPostProcessor(
+            @Value("${datasource.guard.acquire-timeout:30000}") long acquireTimeout,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikari)) {
+                    return bean;
+                }
+                SemaphoreGuardedDataSource guarded = new SemaphoreGuardedDataSource(
+                        hikari, hikari.getMaximumPoolSize(), acquireTimeout);
+                meterRegistry.ifAvailable(registry -> Gauge.builder("datasource.guard.waiting", guarded,
+                                SemaphoreGuardedDataSource::getWaitingThreads)
+                        .description("等待数据库连接许可的线程数")
+                        .register(registry));
+                return guarded;
+            }
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package com.yiyunnetwork.order.config;
+
+import com.yiyunnetwork.order.util.ReservedConnectionProvider;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * 主键预取连接池配置
+ * 表生成器在独立连接上预取主键区间，为其单独建立一个小连接池（连接信息同 spring.datasource），
+ * 应用连接池被事务占满时预取仍能拿到连接，与 datasource.guard 是否开启无关
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    @Bean
+    public ReservedConnectionProvider reservedConnectionProvider(
+            DataSource dataSource,
+            DataSourceProperties dataSourceProperties,
+            @Value("${datasource.id-generator.pool-size:2}") int poolSize) {
+        HikariDataSource idGeneratorDataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        idGeneratorDataSource.setPoolName("id-generator");
+        idGeneratorDataSource.setMaximumPoolSize(poolSize);
+        idGeneratorDataSource.setMinimumIdle(0);
+        return new ReservedConnectionProvider(dataSource, idGeneratorDataSource);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer reservedConnectionProviderCustomizer(
+            ReservedConnectionProvider reservedConnectionProvider) {
+        return properties -> properties.put(AvailableSettings.CONNECTION_PROVIDER, reservedConnectionProvider);
+    }
+}
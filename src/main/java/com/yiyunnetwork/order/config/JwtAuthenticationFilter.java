@@ -2,18 +2,16 @@ package com.yiyunnetwork.order.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yiyunnetwork.order.dto.ApiResult;
-import com.yiyunnetwork.order.model.User;
 import com.yiyunnetwork.order.service.JwtBlacklistService;
-import com.yiyunnetwork.order.service.UserService;
+import com.yiyunnetwork.order.service.LastLoginService;
+import com.yiyunnetwork.order.service.UserCacheService;
 import com.yiyunnetwork.order.util.JwtUtil;
+import com.yiyunnetwork.order.util.VerifiedJwt;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.core.task.TaskExecutor;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -23,8 +21,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.util.concurrent.TimeUnit;
 
 import static com.yiyunnetwork.order.dto.ApiResult.ResultCode.UNAUTHORIZED;
 
@@ -34,29 +30,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
-    private final UserService userService;
-    private final RedisTemplate<String, Object> redisTemplate;
-    private final TaskExecutor taskExecutor;
     private final JwtBlacklistService jwtBlacklistService;
-    
-    // 登录时间更新的节流时间（分钟）
-    private static final long LOGIN_TIME_THROTTLE_MINUTES = 30;
-    // Redis键前缀
-    private static final String LAST_LOGIN_UPDATE_KEY_PREFIX = "last_login_update:";
+    private final UserCacheService userCacheService;
+    private final LastLoginService lastLoginService;
     private final ObjectMapper objectMapper;
 
     public JwtAuthenticationFilter(JwtUtil jwtUtil,
                                    UserDetailsService userDetailsService,
-                                   UserService userService,
-                                   RedisTemplate<String, Object> redisTemplate,
-                                   @Qualifier("taskExecutor") TaskExecutor taskExecutor,
-                                   JwtBlacklistService jwtBlacklistService, ObjectMapper objectMapper) {
+                                   JwtBlacklistService jwtBlacklistService,
+                                   UserCacheService userCacheService,
+                                   LastLoginService lastLoginService,
+                                   ObjectMapper objectMapper) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
-        this.userService = userService;
-        this.redisTemplate = redisTemplate;
-        this.taskExecutor = taskExecutor;
         this.jwtBlacklistService = jwtBlacklistService;
+        this.userCacheService = userCacheService;
+        this.lastLoginService = lastLoginService;
         this.objectMapper = objectMapper;
     }
 
@@ -68,6 +57,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String username = null;
         String jwt = null;
+        VerifiedJwt verifiedJwt = null;
 
         // 检查请求头中是否有JWT令牌
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
@@ -83,7 +73,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     return; // 立即返回，不继续处理请求
                 }
                 
-                username = jwtUtil.extractUsername(jwt);
+                // 解析并验签一次，后续校验复用解析结果
+                verifiedJwt = jwtUtil.verify(jwt);
+                username = verifiedJwt.username();
             } catch (Exception e) {
                 log.error("JWT Token is invalid", e);
             }
@@ -93,66 +85,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // 如果存在token且当前SecurityContext中没有已经认证的用户，则验证token
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            // 优先使用本地缓存的认证信息，避免每个请求都查询数据库
+            UserDetails userDetails = userCacheService.getUserDetails(username, userDetailsService::loadUserByUsername);
 
             // 如果token有效，则设置认证信息
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            if (jwtUtil.validateToken(verifiedJwt, userDetails)) {
                 UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authenticationToken);
                 
-                // 更新用户最后登录时间，使用节流控制更新频率
+                // 记录用户最后登录时间，在内存中合并后定期批量写入数据库
                 // 排除Swagger文档请求和API文档请求
                 if (!request.getRequestURI().contains("/swagger-ui") && 
                     !request.getRequestURI().contains("/api-docs")) {
-                    updateLastLoginTimeWithThrottle(username);
+                    lastLoginService.record(username);
                 }
             }
         }
         filterChain.doFilter(request, response);
     }
-    
-    /**
-     * 更新用户最后登录时间，使用Redis进行节流控制
-     * 在LOGIN_TIME_THROTTLE_MINUTES时间内只更新一次
-     * 
-     * @param username 用户名
-     */
-    private void updateLastLoginTimeWithThrottle(String username) {
-        String redisKey = LAST_LOGIN_UPDATE_KEY_PREFIX + username;
-        
-        // 检查Redis中是否已存在该键（表示近期已更新过）
-        Boolean keyExists = redisTemplate.hasKey(redisKey);
-        
-        // 如果键不存在，则进行更新
-        if (keyExists == null || !keyExists) {
-            try {
-                // 异步更新用户最后登录时间
-                updateUserLastLoginTimeAsync(username);
-                
-                // 在Redis中设置节流标志，LOGIN_TIME_THROTTLE_MINUTES分钟内不再更新
-                redisTemplate.opsForValue().set(redisKey, true, LOGIN_TIME_THROTTLE_MINUTES, TimeUnit.MINUTES);
-            } catch (Exception e) {
-                log.error("Failed to update or throttle last login time", e);
-            }
-        }
-    }
-    
-    /**
-     * 异步更新用户最后登录时间
-     * 
-     * @param username 用户名
-     */
-    private void updateUserLastLoginTimeAsync(String username) {
-        taskExecutor.execute(() -> {
-            try {
-                User user = userService.findByUsername(username);
-                user.setLastLoginTime(LocalDateTime.now());
-                userService.save(user);
-            } catch (Exception e) {
-                log.error("Failed to update last login time asynchronously", e);
-            }
-        });
-    }
-} 
\ No newline at end of file
+}
@@ -1,22 +1,26 @@
 package com.yiyunnetwork.order.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
 import io.github.bucket4j.Bucket4j;
 import io.github.bucket4j.Refill;
+import lombok.Getter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.Duration;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * API限流配置
- * 使用令牌桶算法实现
+ * 使用令牌桶算法实现，由 RateLimitService 按IP和邮箱分别取桶（本节点模式），集群模式的桶在 Redis 中
+ * <p>
+ * 桶保存在有容量上限的本地缓存中，超过恢复周期未访问的桶已恢复满额，直接淘汰，与新建的桶等价
  */
 @Configuration
+@Getter
 public class RateLimitConfig {
     
     @Value("${rate-limit.verification-code.capacity:3}")
@@ -30,13 +34,16 @@ public class RateLimitConfig {
     
     @Value("${rate-limit.order.period:3600}")
     private int orderRefillPeriod; // 订单创建恢复周期，单位秒
+    
+    @Value("${rate-limit.max-keys:100000}")
+    private long maxKeys; // 每类限流桶最多保存的键（IP或邮箱）数
 
     /**
      * 验证码请求限流桶
      */
     @Bean
     public Map<String, Bucket> verificationCodeBuckets() {
-        return new ConcurrentHashMap<>();
+        return createBucketStore(verificationCodeRefillPeriod);
     }
     
     /**
@@ -44,7 +51,15 @@ public class RateLimitConfig {
      */
     @Bean
     public Map<String, Bucket> orderBuckets() {
-        return new ConcurrentHashMap<>();
+        return createBucketStore(orderRefillPeriod);
+    }
+    
+    private Map<String, Bucket> createBucketStore(int refillPeriod) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofSeconds(refillPeriod))
+                .<String, Bucket>build()
+                .asMap();
     }
     
     /**
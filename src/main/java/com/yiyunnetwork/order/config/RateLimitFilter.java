@@ -0,0 +1,204 @@
+package com.yiyunnetwork.order.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yiyunnetwork.order.dto.ApiResult;
+import com.yiyunnetwork.order.service.RateLimitService;
+import com.yiyunnetwork.order.service.RateLimitService.Decision;
+import com.yiyunnetwork.order.service.RateLimitService.Route;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Objects;
+
+import static com.yiyunnetwork.order.dto.ApiResult.ResultCode.PAYLOAD_TOO_LARGE;
+import static com.yiyunnetwork.order.dto.ApiResult.ResultCode.TOO_MANY_REQUESTS;
+
+/**
+ * 公开接口限流：创建订单和发送验证码，先按客户端IP、再按邮箱各消耗一个令牌，
+ * 任一桶耗尽即返回 429 和 Retry-After，不进入业务处理
+ * <p>
+ * 创建订单的邮箱在请求体中，读取后缓存供后续处理重复读取。无论是否声明 Content-Length（包括分块传输），
+ * 最多读取 rate-limit.max-body-size 字节，超过时返回 413，不能借超大请求体绕过邮箱限流。
+ * 部署在反向代理后时需配置 server.forward-headers-strategy，使客户端IP取自转发头
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String ORDER_PATH = "/api/orders/public";
+    private static final String VERIFICATION_CODE_PATH = "/api/verification-codes/send";
+
+    private final RateLimitService rateLimitService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${rate-limit.max-body-size:262144}")
+    private int maxBodySize; // 创建订单请求体的最大字节数，超过时返回 413
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) {
+            return true;
+        }
+        String path = pathOf(request);
+        return !ORDER_PATH.equals(path) && !VERIFICATION_CODE_PATH.equals(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Route route = ORDER_PATH.equals(pathOf(request)) ? Route.ORDER : Route.VERIFICATION_CODE;
+        String ip = request.getRemoteAddr();
+
+        Decision decision = rateLimitService.tryConsume(route, "ip:" + ip);
+        if (decision.allowed()) {
+            String email;
+            if (route == Route.ORDER) {
+                CachedBodyRequest cached = CachedBodyRequest.of(request, maxBodySize);
+                if (cached == null) {
+                    log.warn("Request body too large: path={}, ip={}", pathOf(request), ip);
+                    writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, ApiResult.failed(PAYLOAD_TOO_LARGE));
+                    return;
+                }
+                request = cached;
+                email = readCustomerEmail(cached.body);
+            } else {
+                email = request.getParameter("email");
+            }
+            if (email != null && !email.isBlank()) {
+                decision = rateLimitService.tryConsume(route, "email:" + email.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+
+        if (!decision.allowed()) {
+            log.warn("Rate limit exceeded: path={}, ip={}", pathOf(request), ip);
+            reject(response, decision);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private String readCustomerEmail(byte[] body) {
+        try {
+            JsonNode email = objectMapper.readTree(body).path("customerEmail");
+            return email.isTextual() ? email.asText() : null;
+        } catch (IOException e) {
+            // 请求体不是有效的JSON，交由后续处理返回参数错误
+            return null;
+        }
+    }
+
+    private void reject(HttpServletResponse response, Decision decision) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()));
+        writeError(response, HttpStatus.TOO_MANY_REQUESTS, ApiResult.failed(TOO_MANY_REQUESTS));
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, ApiResult<?> result) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(objectMapper.writeValueAsString(result));
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * 缓存请求体，可重复读取
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        /**
+         * @return 缓存了请求体的请求，请求体超过 maxSize 时返回 null
+         */
+        static CachedBodyRequest of(HttpServletRequest request, int maxSize) throws IOException {
+            if (request.getContentLengthLong() > maxSize) {
+                return null;
+            }
+            // 不依赖 Content-Length（分块传输时未知），多读一个字节判断是否超限
+            byte[] body = request.getInputStream().readNBytes(maxSize + 1);
+            if (body.length > maxSize) {
+                return null;
+            }
+            return new CachedBodyRequest(request, body);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    Objects.requireNonNull(listener, "listener");
+                    // 请求体已全部在内存中，立即通知可读，读完后通知结束
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -6,8 +6,11 @@ import com.yiyunnetwork.order.dto.auth.LoginResponseDTO;
 import com.yiyunnetwork.order.dto.user.UserResponseDTO;
 import com.yiyunnetwork.order.model.User;
 import com.yiyunnetwork.order.service.JwtBlacklistService;
+import com.yiyunnetwork.order.service.LastLoginService;
 import com.yiyunnetwork.order.service.UserService;
+import com.yiyunnetwork.order.util.ConcurrencyLimitedExecutor;
 import com.yiyunnetwork.order.util.JwtUtil;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
@@ -34,9 +37,8 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
-import java.time.LocalDateTime;
 import java.util.Arrays;
-import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,9 +53,10 @@ public class SecurityConfig {
     private final JwtUtil jwtUtil;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final ObjectMapper objectMapper;
-    @Qualifier("taskExecutor")
-    private final TaskExecutor taskExecutor;
+    @Qualifier("tokenBlacklistExecutor")
+    private final ConcurrencyLimitedExecutor tokenBlacklistExecutor;
     private final JwtBlacklistService jwtBlacklistService;
+    private final LastLoginService lastLoginService;
     private static final Logger logger = LoggerFactory.getLogger(SecurityConfig.class);
 
     // 将passwordEncoder定义为静态方法，避免循环依赖
@@ -90,6 +93,9 @@ public class SecurityConfig {
         
         // 设置授权规则
         http.authorizeHttpRequests(auth -> auth
+                // SSE 等异步请求的后续分派：首次请求已完成鉴权，JWT 过滤器不处理异步分派
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                
                 // 公开访问的API
                 .requestMatchers("/api/auth/login").permitAll()
                 .requestMatchers("/api/orders/public/**", "/api/verification-codes/**").permitAll()
@@ -138,16 +144,8 @@ public class SecurityConfig {
             // 获取用户详情
             User user = userService.findByUsername(username);
             
-            // 使用TaskExecutor异步更新用户最后登录时间，避免阻塞响应
-            taskExecutor.execute(() -> {
-                try {
-                    User userToUpdate = userService.findByUsername(username);
-                    userToUpdate.setLastLoginTime(LocalDateTime.now());
-                    userService.save(userToUpdate);
-                } catch (Exception e) {
-                    logger.error("Failed to update last login time for user: " + username, e);
-                }
-            });
+            // 记录最后登录时间，由LastLoginService批量写入数据库，避免阻塞响应
+            lastLoginService.record(username);
             
             // 生成JWT令牌
             String token = jwtUtil.generateToken(userDetails);
@@ -191,13 +189,20 @@ public class SecurityConfig {
                     String username = jwtUtil.extractUsername(token);
                     
                     // 异步将令牌添加到黑名单
-                    taskExecutor.execute(() -> {
+                    tokenBlacklistExecutor.execute(() -> {
                         try {
                             jwtBlacklistService.addToBlacklist(token, username);
                         } catch (Exception e) {
                             logger.error("Failed to blacklist JWT token on logout", e);
                         }
                     });
+                } catch (TaskRejectedException e) {
+                    // 队列已满，令牌未加入黑名单，告知客户端稍后重试注销
+                    logger.warn("JWT blacklist queue is full, logout rejected");
+                    response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                    ApiResult<?> result = ApiResult.failed(ApiResult.ResultCode.TOO_MANY_REQUESTS, "注销请求过多，请稍后重试");
+                    response.getWriter().write(objectMapper.writeValueAsString(result));
+                    return;
                 } catch (Exception e) {
                     logger.error("Failed to extract username from JWT token", e);
                 }
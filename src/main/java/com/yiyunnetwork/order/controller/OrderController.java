@@ -1,18 +1,27 @@
 package com.yiyunnetwork.order.controller;
 
 import com.yiyunnetwork.order.dto.ApiResult;
+import com.yiyunnetwork.order.dto.CursorPage;
+import com.yiyunnetwork.order.dto.order.OrderBulkReviewDTO;
 import com.yiyunnetwork.order.dto.order.OrderCreateDTO;
+import com.yiyunnetwork.order.dto.order.OrderListItemDTO;
+import com.yiyunnetwork.order.dto.order.OrderReviewResultDTO;
 import com.yiyunnetwork.order.dto.order.OrderStatusUpdateDTO;
 import com.yiyunnetwork.order.dto.order.OrderResponseDTO;
 import com.yiyunnetwork.order.dto.order.OrderDetailResponseDTO;
 import com.yiyunnetwork.order.exception.BusinessException;
+import com.yiyunnetwork.order.exception.OrderConflictException;
 import com.yiyunnetwork.order.model.Order;
 import com.yiyunnetwork.order.model.OrderLog;
 import com.yiyunnetwork.order.model.User;
 import com.yiyunnetwork.order.model.enums.OrderStatus;
+import com.yiyunnetwork.order.repository.projection.OrderListRow;
+import com.yiyunnetwork.order.repository.projection.OrderVersion;
+import com.yiyunnetwork.order.service.OrderEventService;
 import com.yiyunnetwork.order.service.OrderService;
 import com.yiyunnetwork.order.service.UserService;
 import com.yiyunnetwork.order.service.VerificationCodeService;
+import com.yiyunnetwork.order.util.HttpCacheUtils;
 import com.yiyunnetwork.order.util.OrderUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -23,12 +32,18 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -38,6 +53,7 @@ import java.util.UUID;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderEventService orderEventService;
     private final UserService userService;
     private final VerificationCodeService verificationCodeService;
     private final OrderUtils orderUtils;
@@ -57,8 +73,15 @@ public class OrderController {
     @GetMapping("/public/{id}")
     public ApiResult<OrderResponseDTO> getOrderByIdAndToken(
             @Parameter(description = "订单ID", required = true) @PathVariable UUID id,
-            @Parameter(description = "访问令牌", required = true) @RequestParam String token) {
+            @Parameter(description = "访问令牌", required = true) @RequestParam String token,
+            ServletWebRequest webRequest) {
         try {
+            // 先按版本判断是否变化，未变化时不加载订单详情
+            Optional<OrderVersion> version = orderService.getOrderVersion(id, token);
+            if (version.isPresent() && checkNotModified(webRequest, version.get())) {
+                return null;
+            }
+            
             Order order = orderService.getOrderByIdAndToken(id, token);
             return ApiResult.success(OrderResponseDTO.fromOrder(order));
         } catch (BusinessException e) {
@@ -88,6 +111,8 @@ public class OrderController {
             // 取消订单
             Order canceledOrder = orderService.cancelOrder(id, token, remark);
             return ApiResult.success(OrderResponseDTO.fromOrder(canceledOrder));
+        } catch (OrderConflictException e) {
+            return ApiResult.failed(ApiResult.ResultCode.CONFLICT, e.getMessage());
         } catch (BusinessException e) {
             return ApiResult.failed(e.getMessage());
         }
@@ -136,6 +161,30 @@ public class OrderController {
         }
     }
 
+    @Operation(summary = "游标分页获取客户订单列表", description = "客户根据邮箱和验证码按游标分页获取自己的订单列表，默认不统计总数")
+    @GetMapping(value = "/public/customer", params = "scroll=true")
+    public ApiResult<CursorPage<OrderResponseDTO>> scrollCustomerOrders(
+            @Parameter(description = "客户邮箱", required = true) @RequestParam String email,
+            @Parameter(description = "验证码", required = true) @RequestParam String code,
+            @Parameter(description = "上一页返回的游标，首页不传") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页大小，1-100") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "是否统计总数") @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            // 验证验证码
+            if (!verificationCodeService.verifyCode(email, code)) {
+                return ApiResult.failed("验证码无效或已过期");
+            }
+            
+            // 标记验证码为已使用
+            verificationCodeService.markCodeAsUsed(email, code);
+            
+            CursorPage<Order> orderPage = orderService.scrollOrdersByCustomerEmail(email, cursor, size, withTotal);
+            return ApiResult.success(orderPage.map(OrderResponseDTO::fromOrder));
+        } catch (BusinessException e) {
+            return ApiResult.failed(e.getMessage());
+        }
+    }
+
     @Operation(summary = "获取订单二维码内容", description = "根据订单ID获取订单二维码内容，用于前端生成二维码")
     @GetMapping("/public/{id}/qrcode")
     public ApiResult<String> getOrderQrCodeContent(
@@ -154,17 +203,51 @@ public class OrderController {
         }
     }
 
+    @Operation(summary = "订阅订单状态变更", description = "客户根据订单ID和访问令牌订阅订单状态变更（Server-Sent Events），事件名为 order-status")
+    @GetMapping(value = "/public/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeOrderEvents(
+            @Parameter(description = "订单ID", required = true) @PathVariable UUID id,
+            @Parameter(description = "访问令牌", required = true) @RequestParam String token) {
+        try {
+            // 只校验访问令牌，不加载订单详情
+            if (orderService.getOrderVersion(id, token).isEmpty()) {
+                return failedEmitter("订单不存在或访问令牌无效");
+            }
+            
+            return orderEventService.subscribeOrder(id);
+        } catch (BusinessException e) {
+            return failedEmitter(e.getMessage());
+        }
+    }
+
     // 管理员和代理商接口
     
+    @Operation(summary = "订阅订单状态变更", description = "订阅订单状态变更（Server-Sent Events），管理员接收所有订单，代理只接收自己负责的订单，事件名为 order-status")
+    @GetMapping(value = "/admin/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'AGENT')")
+    public SseEmitter subscribeAdminEvents() {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            boolean isAdmin = authentication.getAuthorities().stream()
+                    .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+            
+            return isAdmin
+                    ? orderEventService.subscribeAll()
+                    : orderEventService.subscribeAgent(authentication.getName());
+        } catch (BusinessException e) {
+            return failedEmitter(e.getMessage());
+        }
+    }
+    
     @Operation(summary = "获取所有订单", description = "管理员获取所有订单，代理只能获取自己负责的订单")
     @GetMapping("/admin")
     @PreAuthorize("hasAnyRole('ADMIN', 'AGENT')")
-    public ApiResult<Page<OrderDetailResponseDTO>> getAllOrders(
+    public ApiResult<Page<OrderListItemDTO>> getAllOrders(
             @Parameter(description = "页码，从0开始") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") int size) {
         
         Pageable pageable = PageRequest.of(page, size, Sort.by("createTime").descending());
-        Page<Order> orderPage;
+        Page<OrderListRow> rowPage;
         
         // 获取当前登录用户
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -173,28 +256,50 @@ public class OrderController {
         // 根据用户角色决定查看哪些订单
         if (authentication.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
             // 超管可以看到所有订单
-            orderPage = orderService.getAllOrders(pageable);
+            rowPage = orderService.getOrderRows(pageable);
         } else {
             // 代理只能看到自己负责的订单
-            orderPage = orderService.getOrdersByAgent(currentUser, pageable);
+            rowPage = orderService.getOrderRowsByAgent(currentUser, pageable);
         }
         
-        // 转换为OrderDetailResponseDTO
-        Page<OrderDetailResponseDTO> responsePage = orderPage.map(OrderDetailResponseDTO::fromOrder);
+        // 列表只返回摘要信息，字段和日志通过详情接口获取
+        Page<OrderListItemDTO> responsePage = rowPage.map(OrderListItemDTO::fromRow);
         
         return ApiResult.success(responsePage);
     }
 
+    @Operation(summary = "按字段值搜索订单", description = "按商品中标记为可搜索的字段的值精确查找订单（需 JSON 存储模式和 MySQL），管理员查找所有订单，代理只查找自己负责的订单")
+    @GetMapping("/admin/search")
+    @PreAuthorize("hasAnyRole('ADMIN', 'AGENT')")
+    public ApiResult<Page<OrderListItemDTO>> searchOrdersByField(
+            @Parameter(description = "字段标识", required = true) @RequestParam String fieldKey,
+            @Parameter(description = "字段值", required = true) @RequestParam String value,
+            @Parameter(description = "页码，从0开始") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") int size) {
+        try {
+            Pageable pageable = PageRequest.of(page, size);
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            boolean isAdmin = authentication.getAuthorities().stream()
+                    .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+            User agent = isAdmin ? null : userService.findByUsername(authentication.getName());
+            
+            Page<OrderListRow> rowPage = orderService.searchOrderRowsByField(fieldKey, value, agent, pageable);
+            return ApiResult.success(rowPage.map(OrderListItemDTO::fromRow));
+        } catch (BusinessException e) {
+            return ApiResult.failed(e.getMessage());
+        }
+    }
+
     @Operation(summary = "根据状态获取订单", description = "管理员根据状态获取订单，代理只能获取自己负责的订单")
     @GetMapping("/admin/status")
     @PreAuthorize("hasAnyRole('ADMIN', 'AGENT')")
-    public ApiResult<Page<OrderDetailResponseDTO>> getOrdersByStatus(
+    public ApiResult<Page<OrderListItemDTO>> getOrdersByStatus(
             @Parameter(description = "订单状态", required = true) @RequestParam OrderStatus status,
             @Parameter(description = "页码，从0开始") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") int size) {
         
         Pageable pageable = PageRequest.of(page, size, Sort.by("createTime").descending());
-        Page<Order> orderPage;
+        Page<OrderListRow> rowPage;
         
         // 获取当前登录用户
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -203,34 +308,73 @@ public class OrderController {
         // 根据用户角色决定查看哪些订单
         if (authentication.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
             // 超管可以看到所有订单
-            orderPage = orderService.getOrdersByStatus(status, pageable);
+            rowPage = orderService.getOrderRowsByStatus(status, pageable);
         } else {
             // 代理只能看到自己负责的订单
-            orderPage = orderService.getOrdersByAgentAndStatus(currentUser, status, pageable);
+            rowPage = orderService.getOrderRowsByAgentAndStatus(currentUser, status, pageable);
         }
         
-        // 转换为OrderDetailResponseDTO
-        Page<OrderDetailResponseDTO> responsePage = orderPage.map(OrderDetailResponseDTO::fromOrder);
+        // 列表只返回摘要信息，字段和日志通过详情接口获取
+        Page<OrderListItemDTO> responsePage = rowPage.map(OrderListItemDTO::fromRow);
         
         return ApiResult.success(responsePage);
     }
 
+    @Operation(summary = "游标分页获取所有订单", description = "按游标分页获取订单，管理员获取所有订单，代理只能获取自己负责的订单，默认不统计总数")
+    @GetMapping(value = "/admin", params = "scroll=true")
+    @PreAuthorize("hasAnyRole('ADMIN', 'AGENT')")
+    public ApiResult<CursorPage<OrderListItemDTO>> scrollAllOrders(
+            @Parameter(description = "上一页返回的游标，首页不传") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页大小，1-100") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "是否统计总数") @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            return ApiResult.success(scrollOrderRows(null, cursor, size, withTotal));
+        } catch (BusinessException e) {
+            return ApiResult.failed(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "游标分页根据状态获取订单", description = "按游标分页根据状态获取订单，代理只能获取自己负责的订单，默认不统计总数")
+    @GetMapping(value = "/admin/status", params = "scroll=true")
+    @PreAuthorize("hasAnyRole('ADMIN', 'AGENT')")
+    public ApiResult<CursorPage<OrderListItemDTO>> scrollOrdersByStatus(
+            @Parameter(description = "订单状态", required = true) @RequestParam OrderStatus status,
+            @Parameter(description = "上一页返回的游标，首页不传") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页大小，1-100") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "是否统计总数") @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            return ApiResult.success(scrollOrderRows(status, cursor, size, withTotal));
+        } catch (BusinessException e) {
+            return ApiResult.failed(e.getMessage());
+        }
+    }
+
     @Operation(summary = "获取订单详情", description = "管理员根据ID获取订单详情，代理只能获取自己负责的订单")
     @GetMapping("/admin/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'AGENT')")
     public ApiResult<OrderDetailResponseDTO> getOrder(
-            @Parameter(description = "订单ID", required = true) @PathVariable UUID id) {
+            @Parameter(description = "订单ID", required = true) @PathVariable UUID id,
+            ServletWebRequest webRequest) {
         try {
-            Order order = orderService.getOrder(id);
-            
-            // 获取当前登录用户
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            User currentUser = userService.findByUsername(authentication.getName());
             
             // 检查权限：管理员可以查看所有订单，代理只能查看自己负责的订单
             boolean isAdmin = authentication.getAuthorities().stream()
                     .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
             
+            // 先按版本判断是否变化，有权限且未变化时不加载订单详情
+            Optional<OrderVersion> version = orderService.getOrderVersion(id);
+            if (version.isPresent()
+                    && (isAdmin || authentication.getName().equals(version.get().getAgentName()))
+                    && checkNotModified(webRequest, version.get())) {
+                return null;
+            }
+            
+            Order order = orderService.getOrderDetail(id);
+            
+            // 获取当前登录用户
+            User currentUser = userService.findByUsername(authentication.getName());
+            
             if (!isAdmin && (order.getAgent() == null || !order.getAgent().getId().equals(currentUser.getId()))) {
                 return ApiResult.failed(ApiResult.ResultCode.FORBIDDEN, "您没有权限查看该订单");
             }
@@ -281,14 +425,9 @@ public class OrderController {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             User agent = userService.findByUsername(authentication.getName());
             
-            // 获取订单
+            // 获取订单，状态由状态机校验
             Order order = orderService.getOrder(id);
             
-            // 检查订单状态
-            if (order.getStatus() != OrderStatus.PENDING_AGENT_REVIEW) {
-                return ApiResult.failed("只能审核待代理审核状态的订单");
-            }
-            
             // 检查该订单是否已经分配给当前代理
             if (order.getAgent() != null && !order.getAgent().getId().equals(agent.getId())) {
                 return ApiResult.failed(ApiResult.ResultCode.FORBIDDEN, "您没有权限审核该订单");
@@ -296,6 +435,8 @@ public class OrderController {
             
             Order reviewedOrder = orderService.agentReviewOrder(id, approved, agent, remark);
             return ApiResult.success(OrderDetailResponseDTO.fromOrder(reviewedOrder));
+        } catch (OrderConflictException e) {
+            return ApiResult.failed(ApiResult.ResultCode.CONFLICT, e.getMessage());
         } catch (BusinessException e) {
             return ApiResult.failed(e.getMessage());
         }
@@ -314,6 +455,38 @@ public class OrderController {
             
             Order order = orderService.adminReviewOrder(id, approved, admin, remark);
             return ApiResult.success(OrderDetailResponseDTO.fromOrder(order));
+        } catch (OrderConflictException e) {
+            return ApiResult.failed(ApiResult.ResultCode.CONFLICT, e.getMessage());
+        } catch (BusinessException e) {
+            return ApiResult.failed(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "代理批量审核订单", description = "代理批量审核待代理审核状态的订单，只能审核自己负责或未分配的订单，按订单返回处理结果")
+    @PostMapping("/admin/bulk/agent-review")
+    @PreAuthorize("hasRole('AGENT')")
+    public ApiResult<List<OrderReviewResultDTO>> agentReviewOrders(@Valid @RequestBody OrderBulkReviewDTO reviewDTO) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            User agent = userService.findByUsername(authentication.getName());
+            
+            return ApiResult.success(orderService.agentReviewOrders(
+                    reviewDTO.getOrderIds(), reviewDTO.getApproved(), agent, reviewDTO.getRemark()));
+        } catch (BusinessException e) {
+            return ApiResult.failed(e.getMessage());
+        }
+    }
+
+    @Operation(summary = "超管批量审核订单", description = "超管批量审核待超管审核状态的订单，按订单返回处理结果")
+    @PostMapping("/admin/bulk/admin-review")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResult<List<OrderReviewResultDTO>> adminReviewOrders(@Valid @RequestBody OrderBulkReviewDTO reviewDTO) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            User admin = userService.findByUsername(authentication.getName());
+            
+            return ApiResult.success(orderService.adminReviewOrders(
+                    reviewDTO.getOrderIds(), reviewDTO.getApproved(), admin, reviewDTO.getRemark()));
         } catch (BusinessException e) {
             return ApiResult.failed(e.getMessage());
         }
@@ -331,6 +504,8 @@ public class OrderController {
             
             Order order = orderService.markOrderInProgress(id, admin, remark);
             return ApiResult.success(OrderDetailResponseDTO.fromOrder(order));
+        } catch (OrderConflictException e) {
+            return ApiResult.failed(ApiResult.ResultCode.CONFLICT, e.getMessage());
         } catch (BusinessException e) {
             return ApiResult.failed(e.getMessage());
         }
@@ -348,6 +523,8 @@ public class OrderController {
             
             Order order = orderService.completeOrder(id, admin, remark);
             return ApiResult.success(OrderDetailResponseDTO.fromOrder(order));
+        } catch (OrderConflictException e) {
+            return ApiResult.failed(ApiResult.ResultCode.CONFLICT, e.getMessage());
         } catch (BusinessException e) {
             return ApiResult.failed(e.getMessage());
         }
@@ -365,8 +542,45 @@ public class OrderController {
             
             Order order = orderService.updateOrderStatus(id, orderStatusUpdateDTO, operator);
             return ApiResult.success(OrderDetailResponseDTO.fromOrder(order));
+        } catch (OrderConflictException e) {
+            return ApiResult.failed(ApiResult.ResultCode.CONFLICT, e.getMessage());
         } catch (BusinessException e) {
             return ApiResult.failed(e.getMessage());
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * 按当前用户角色游标分页获取订单列表行：超管查看所有订单，代理只查看自己负责的订单
+     */
+    private CursorPage<OrderListItemDTO> scrollOrderRows(OrderStatus status, String cursor, int size, boolean withTotal) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAdmin = authentication.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+        User agent = isAdmin ? null : userService.findByUsername(authentication.getName());
+        
+        return orderService.scrollOrderRows(agent, status, cursor, size, withTotal)
+                .map(OrderListItemDTO::fromRow);
+    }
+    
+    /**
+     * 按订单版本处理条件请求，ETag 取自乐观锁版本号，Last-Modified 取自订单更新时间
+     */
+    private boolean checkNotModified(ServletWebRequest webRequest, OrderVersion version) {
+        return HttpCacheUtils.checkNotModified(webRequest,
+                "order-" + version.getId() + "-" + version.getVersion(), version.getUpdateTime());
+    }
+    
+    /**
+     * SSE 接口无法返回 ApiResult，失败时以 error 事件发送错误结果后关闭连接
+     */
+    private SseEmitter failedEmitter(String message) {
+        SseEmitter emitter = new SseEmitter();
+        try {
+            emitter.send(SseEmitter.event().name("error").data(ApiResult.failed(message)));
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+}
@@ -5,6 +5,7 @@ import com.yiyunnetwork.order.dto.product.ProductDTO;
 import com.yiyunnetwork.order.exception.BusinessException;
 import com.yiyunnetwork.order.model.Product;
 import com.yiyunnetwork.order.service.ProductService;
+import com.yiyunnetwork.order.util.HttpCacheUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -16,7 +17,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -29,16 +32,27 @@ public class ProductController {
 
     @Operation(summary = "获取所有启用的商品", description = "获取所有已启用的商品列表，不需要登录")
     @GetMapping("/public/enabled")
-    public ApiResult<List<Product>> getEnabledProducts() {
-        return ApiResult.success(productService.getEnabledProducts());
+    public ApiResult<List<Product>> getEnabledProducts(ServletWebRequest webRequest) {
+        List<Product> products = productService.getEnabledProducts();
+        if (checkNotModified(webRequest, "products", products, products.size())) {
+            return null;
+        }
+        return ApiResult.success(products);
     }
 
     @Operation(summary = "获取商品详情", description = "根据ID获取商品详情，包含商品字段")
     @GetMapping("/public/{id}")
     public ApiResult<Product> getProduct(
-            @Parameter(description = "商品ID", required = true) @PathVariable Long id) {
+            @Parameter(description = "商品ID", required = true) @PathVariable Long id,
+            ServletWebRequest webRequest) {
         try {
-            return ApiResult.success(productService.getProduct(id));
+            Product product = productService.getProduct(id);
+            if (HttpCacheUtils.checkNotModified(webRequest,
+                    "product-" + id + "-" + HttpCacheUtils.toEpochMilli(product.getUpdateTime()),
+                    product.getUpdateTime())) {
+                return null;
+            }
+            return ApiResult.success(product);
         } catch (BusinessException e) {
             return ApiResult.failed(e.getMessage());
         }
@@ -49,15 +63,18 @@ public class ProductController {
     public ApiResult<Page<Product>> getEnabledProductsPage(
             @Parameter(description = "页码，从0开始") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") int size,
-            @Parameter(description = "搜索关键词") @RequestParam(required = false) String keyword) {
+            @Parameter(description = "搜索关键词") @RequestParam(required = false) String keyword,
+            ServletWebRequest webRequest) {
         
         Pageable pageable = PageRequest.of(page, size, Sort.by("id").descending());
         
-        if (keyword != null && !keyword.isBlank()) {
-            return ApiResult.success(productService.searchEnabledProducts(keyword, pageable));
-        } else {
-            return ApiResult.success(productService.getEnabledProducts(pageable));
+        Page<Product> products = keyword != null && !keyword.isBlank()
+                ? productService.searchEnabledProducts(keyword, pageable)
+                : productService.getEnabledProducts(pageable);
+        if (checkNotModified(webRequest, "products-page", products.getContent(), products.getTotalElements())) {
+            return null;
         }
+        return ApiResult.success(products);
     }
 
     @Operation(summary = "创建商品", description = "创建新商品及其字段配置")
@@ -120,4 +137,22 @@ public class ProductController {
         Pageable pageable = PageRequest.of(page, size, Sort.by("id").descending());
         return ApiResult.success(productService.getAllProducts(pageable));
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 按商品列表内容处理条件请求：ETag 由商品ID、最新更新时间和总数生成，无需序列化响应体
+     */
+    private boolean checkNotModified(ServletWebRequest webRequest, String prefix, List<Product> products, long total) {
+        LocalDateTime lastModified = null;
+        int idsHash = 1;
+        for (Product product : products) {
+            idsHash = 31 * idsHash + product.getId().hashCode();
+            if (product.getUpdateTime() != null
+                    && (lastModified == null || product.getUpdateTime().isAfter(lastModified))) {
+                lastModified = product.getUpdateTime();
+            }
+        }
+        String version = prefix + "-" + total + "-" + Integer.toHexString(idsHash)
+                + "-" + HttpCacheUtils.toEpochMilli(lastModified);
+        return HttpCacheUtils.checkNotModified(webRequest, version, lastModified);
+    }
+}
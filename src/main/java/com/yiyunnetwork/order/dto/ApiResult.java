@@ -55,6 +55,10 @@ public class ApiResult<T> implements Serializable {
         return new ApiResult<>(resultCode.getCode(), message);
     }
     
+    public static <T> ApiResult<T> failed(ResultCode resultCode, String message, T data) {
+        return new ApiResult<>(resultCode.getCode(), message, data);
+    }
+    
     public static <T> ApiResult<T> failed(Integer code, String message) {
         return new ApiResult<>(code, message);
     }
@@ -65,7 +69,10 @@ public class ApiResult<T> implements Serializable {
         VALIDATE_FAILED(400, "参数校验失败"),
         UNAUTHORIZED(401, "暂未登录或身份已过期"),
         FORBIDDEN(403, "没有相关权限"),
-        NOT_FOUND(404, "资源不存在");
+        NOT_FOUND(404, "资源不存在"),
+        CONFLICT(409, "数据已被修改，请刷新后重试"),
+        PAYLOAD_TOO_LARGE(413, "请求内容过大"),
+        TOO_MANY_REQUESTS(429, "请求过于频繁，请稍后再试");
         
         private final Integer code;
         private final String message;
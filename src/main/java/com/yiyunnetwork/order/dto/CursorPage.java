@@ -0,0 +1,32 @@
+package com.yiyunnetwork.order.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页结果
+ * 不计算总数，除非调用方显式要求（totalElements为null表示未统计）
+ */
+@Data
+@AllArgsConstructor
+public class CursorPage<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+    private Long totalElements;
+
+    /**
+     * 转换内容类型，游标信息保持不变
+     */
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> converter) {
+        List<R> converted = content.stream().<R>map(converter).toList();
+        return new CursorPage<>(converted, nextCursor, hasNext, totalElements);
+    }
+}
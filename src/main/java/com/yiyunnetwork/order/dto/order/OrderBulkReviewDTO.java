@@ -0,0 +1,31 @@
+package com.yiyunnetwork.order.dto.order;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 批量审核请求DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBulkReviewDTO {
+    
+    @NotEmpty(message = "订单ID不能为空")
+    @Size(max = 100, message = "每次最多审核100个订单")
+    private List<UUID> orderIds;
+    
+    @NotNull(message = "审核结果不能为空")
+    private Boolean approved;
+    
+    private String remark;
+}
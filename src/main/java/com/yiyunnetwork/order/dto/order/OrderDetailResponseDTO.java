@@ -3,7 +3,6 @@ package com.yiyunnetwork.order.dto.order;
 import com.yiyunnetwork.order.dto.product.ProductSimpleDTO;
 import com.yiyunnetwork.order.dto.user.UserSimpleDTO;
 import com.yiyunnetwork.order.model.Order;
-import com.yiyunnetwork.order.model.OrderField;
 import com.yiyunnetwork.order.model.enums.OrderStatus;
 import lombok.Builder;
 import lombok.Data;
@@ -51,8 +50,7 @@ public class OrderDetailResponseDTO {
         }
         
         // 转换订单字段为Map
-        Map<String, String> fieldMap = order.getFields().stream()
-                .collect(Collectors.toMap(OrderField::getFieldKey, OrderField::getFieldValue));
+        Map<String, String> fieldMap = order.resolveFieldValues();
         
         // 转换订单日志
         List<OrderLogDetailDTO> logList = order.getLogs().stream()
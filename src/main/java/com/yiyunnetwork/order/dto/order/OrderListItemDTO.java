@@ -0,0 +1,53 @@
+package com.yiyunnetwork.order.dto.order;
+
+import com.yiyunnetwork.order.model.enums.OrderStatus;
+import com.yiyunnetwork.order.repository.projection.OrderListRow;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 订单列表项DTO，用于管理端分页列表
+ * 不包含订单字段和日志，详情请通过订单详情接口获取
+ */
+@Data
+@Builder
+public class OrderListItemDTO {
+    
+    private UUID id;
+    private String orderNo;
+    private OrderStatus status;
+    private String productName;
+    private BigDecimal totalAmount;
+    private LocalDateTime createTime;
+    private LocalDateTime updateTime;
+    private LocalDateTime completeTime;
+    private String agentName;
+    
+    /**
+     * 将订单列表行投影转换为OrderListItemDTO
+     * 
+     * @param row 订单列表行投影
+     * @return OrderListItemDTO
+     */
+    public static OrderListItemDTO fromRow(OrderListRow row) {
+        if (row == null) {
+            return null;
+        }
+        
+        return OrderListItemDTO.builder()
+                .id(row.getId())
+                .orderNo(row.getOrderNo())
+                .status(row.getStatus())
+                .productName(row.getProductName())
+                .totalAmount(row.getTotalAmount())
+                .createTime(row.getCreateTime())
+                .updateTime(row.getUpdateTime())
+                .completeTime(row.getCompleteTime())
+                .agentName(row.getAgentName())
+                .build();
+    }
+}
@@ -2,7 +2,6 @@ package com.yiyunnetwork.order.dto.order;
 
 import com.yiyunnetwork.order.dto.product.ProductSimpleDTO;
 import com.yiyunnetwork.order.model.Order;
-import com.yiyunnetwork.order.model.OrderField;
 import com.yiyunnetwork.order.model.enums.OrderStatus;
 import lombok.Builder;
 import lombok.Data;
@@ -48,8 +47,7 @@ public class OrderResponseDTO {
         }
         
         // 转换订单字段为Map
-        Map<String, String> fieldMap = order.getFields().stream()
-                .collect(Collectors.toMap(OrderField::getFieldKey, OrderField::getFieldValue));
+        Map<String, String> fieldMap = order.resolveFieldValues();
         
         // 转换订单日志
         List<OrderLogSimpleDTO> logList = order.getLogs().stream()
@@ -0,0 +1,59 @@
+package com.yiyunnetwork.order.dto.order;
+
+import com.yiyunnetwork.order.model.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * 批量审核中单个订单的处理结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderReviewResultDTO {
+    
+    private UUID orderId;
+    private Outcome outcome;
+    private String message;
+    
+    /**
+     * 审核后的订单状态，未更新时为空
+     */
+    private OrderStatus status;
+    
+    public enum Outcome {
+        /**
+         * 已更新
+         */
+        UPDATED,
+        /**
+         * 订单不存在
+         */
+        NOT_FOUND,
+        /**
+         * 无权审核该订单
+         */
+        FORBIDDEN,
+        /**
+         * 订单状态不允许该审核
+         */
+        INVALID_STATUS,
+        /**
+         * 订单已被其他操作修改
+         */
+        CONFLICT
+    }
+    
+    public static OrderReviewResultDTO updated(UUID orderId, OrderStatus status) {
+        return new OrderReviewResultDTO(orderId, Outcome.UPDATED, null, status);
+    }
+    
+    public static OrderReviewResultDTO failed(UUID orderId, Outcome outcome, String message) {
+        return new OrderReviewResultDTO(orderId, outcome, message, null);
+    }
+}
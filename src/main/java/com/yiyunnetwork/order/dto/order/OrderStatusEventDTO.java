@@ -0,0 +1,44 @@
+package com.yiyunnetwork.order.dto.order;
+
+import com.yiyunnetwork.order.model.OrderLog;
+import com.yiyunnetwork.order.model.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 订单状态变更事件DTO，通过SSE推送给订阅的客户和代理/超管
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusEventDTO {
+    
+    private UUID orderId;
+    private String orderNo;
+    private OrderStatus fromStatus;
+    private OrderStatus toStatus;
+    private String operatorName;
+    private String remark;
+    private LocalDateTime operateTime;
+    
+    /**
+     * 从订单日志转换，日志需已保存
+     */
+    public static OrderStatusEventDTO fromLog(OrderLog orderLog) {
+        return OrderStatusEventDTO.builder()
+                .orderId(orderLog.getOrder().getId())
+                .orderNo(orderLog.getOrder().getOrderNo())
+                .fromStatus(orderLog.getFromStatus())
+                .toStatus(orderLog.getToStatus())
+                .operatorName(orderLog.getOperatorName())
+                .remark(orderLog.getRemark())
+                .operateTime(orderLog.getOperateTime())
+                .build();
+    }
+}
@@ -49,4 +49,10 @@ public class ProductFieldDTO {
     
     @Builder.Default
     private Integer displayOrder = 0;
+    
+    /**
+     * 是否可搜索，JSON 存储模式下为该字段建立生成列和索引，字段标识只能包含字母、数字和下划线
+     */
+    @Builder.Default
+    private Boolean searchable = false;
 } 
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.yiyunnetwork.order.exception;
+
+import java.util.Map;
+
+/**
+ * 订单表单字段校验失败
+ * 包含每个字段的错误信息（字段标识 -> 错误信息），由全局异常处理器返回给前端
+ */
+public class FieldValidationException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+    
+    private final Map<String, String> fieldErrors;
+    
+    public FieldValidationException(Map<String, String> fieldErrors) {
+        super(String.join("；", fieldErrors.values()));
+        this.fieldErrors = fieldErrors;
+    }
+    
+    public Map<String, String> getFieldErrors() {
+        return fieldErrors;
+    }
+}
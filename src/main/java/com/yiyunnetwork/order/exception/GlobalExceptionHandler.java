@@ -1,6 +1,7 @@
 package com.yiyunnetwork.order.exception;
 
 import com.yiyunnetwork.order.dto.ApiResult;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.validation.BindException;
@@ -10,6 +11,8 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.util.Map;
+
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
@@ -18,6 +21,21 @@ public class GlobalExceptionHandler {
         return ApiResult.failed(e.getMessage());
     }
 
+    @ExceptionHandler(FieldValidationException.class)
+    public ApiResult<Map<String, String>> handleFieldValidationException(FieldValidationException e) {
+        return ApiResult.failed(ApiResult.ResultCode.VALIDATE_FAILED, e.getMessage(), e.getFieldErrors());
+    }
+
+    @ExceptionHandler(OrderConflictException.class)
+    public ApiResult<Void> handleOrderConflictException(OrderConflictException e) {
+        return ApiResult.failed(ApiResult.ResultCode.CONFLICT, e.getMessage());
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ApiResult<Void> handleOptimisticLockingFailureException(ObjectOptimisticLockingFailureException e) {
+        return ApiResult.failed(ApiResult.ResultCode.CONFLICT);
+    }
+
     @ExceptionHandler(AuthenticationException.class)
     public ApiResult<Void> handleAuthenticationException(AuthenticationException e) {
         return ApiResult.failed(ApiResult.ResultCode.UNAUTHORIZED, e.getMessage());
@@ -0,0 +1,13 @@
+package com.yiyunnetwork.order.exception;
+
+/**
+ * 订单并发修改冲突：状态变更时订单已被其他操作修改
+ */
+public class OrderConflictException extends BusinessException {
+
+    private static final long serialVersionUID = 1L;
+    
+    public OrderConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,82 @@
+package com.yiyunnetwork.order.model;
+
+import com.yiyunnetwork.order.model.enums.EmailOutboxStatus;
+import com.yiyunnetwork.order.util.ReservedConnectionTableGenerator;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 邮件发件箱
+ * 与业务数据在同一事务中写入，由调度器批量投递
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_status_next_attempt", columnList = "status, next_attempt_time")
+})
+public class EmailOutbox implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(generator = "email_outbox_id")
+    @GenericGenerator(name = "email_outbox_id", type = ReservedConnectionTableGenerator.class, parameters = {
+            @Parameter(name = "table_name", value = "id_generators"),
+            @Parameter(name = "segment_column_name", value = "sequence_name"),
+            @Parameter(name = "value_column_name", value = "next_val"),
+            @Parameter(name = "segment_value", value = "email_outbox"),
+            @Parameter(name = "increment_size", value = "50")
+    })
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String content;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private EmailOutboxStatus status = EmailOutboxStatus.PENDING;
+
+    // 已尝试投递次数
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    // 下次可投递时间，投递中的邮件会被推后一个租约时长，防止被重复领取
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptTime;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createTime;
+
+    @Column
+    private LocalDateTime sentTime;
+
+    @PrePersist
+    protected void onCreate() {
+        createTime = LocalDateTime.now();
+        if (nextAttemptTime == null) {
+            nextAttemptTime = createTime;
+        }
+    }
+}
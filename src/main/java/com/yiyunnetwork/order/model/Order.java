@@ -1,17 +1,23 @@
 package com.yiyunnetwork.order.model;
 
 import com.yiyunnetwork.order.model.enums.OrderStatus;
+import com.yiyunnetwork.order.util.TimeOrderedUuid;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Data
@@ -19,13 +25,55 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_create_time", columnList = "create_time DESC, id DESC"),
+        @Index(name = "idx_orders_status_create_time", columnList = "status, create_time DESC, id DESC"),
+        @Index(name = "idx_orders_agent_create_time", columnList = "agent_id, create_time DESC, id DESC"),
+        @Index(name = "idx_orders_agent_status", columnList = "agent_id, status, create_time DESC, id DESC"),
+        @Index(name = "idx_orders_admin_status", columnList = "admin_id, status, create_time DESC, id DESC"),
+        @Index(name = "idx_orders_customer_email_create_time", columnList = "customer_email, create_time DESC, id DESC")
+})
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = Order.GRAPH_LIST_ROW, attributeNodes = {
+                @NamedAttributeNode("product"),
+                @NamedAttributeNode("agent"),
+                @NamedAttributeNode("admin")
+        }),
+        @NamedEntityGraph(name = Order.GRAPH_DETAIL, attributeNodes = {
+                @NamedAttributeNode("product"),
+                @NamedAttributeNode("agent"),
+                @NamedAttributeNode("admin"),
+                @NamedAttributeNode("fields")
+        }),
+        @NamedEntityGraph(name = Order.GRAPH_PUBLIC_VIEW, attributeNodes = {
+                @NamedAttributeNode("product"),
+                @NamedAttributeNode("fields")
+        })
+})
 public class Order implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * 列表行加载计划：只抓取单值关联，集合通过批量抓取加载，避免分页时在内存中截取
+     */
+    public static final String GRAPH_LIST_ROW = "Order.listRow";
+
+    /**
+     * 管理端详情加载计划：单值关联与订单字段一次查出，日志走批量抓取
+     */
+    public static final String GRAPH_DETAIL = "Order.detail";
+
+    /**
+     * 客户端公开访问加载计划
+     */
+    public static final String GRAPH_PUBLIC_VIEW = "Order.publicView";
+
+    /**
+     * 按时间排序的 UUID，以 BINARY(16) 作为聚簇主键顺序写入
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
 
     @Column(nullable = false, unique = true, length = 20)
@@ -71,11 +119,27 @@ public class Order implements Serializable {
     @Column(length = 500)
     private String remark;
 
+    /**
+     * 乐观锁版本号，状态变更以 id + 原状态 + 版本号为条件更新
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * 订单字段值（字段标识 -> 值），JSON 存储模式下整体写入一列，为空时字段值在 order_fields 中
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column
+    private Map<String, String> fieldValues;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     @Builder.Default
     private List<OrderField> fields = new ArrayList<>();
 
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     @Builder.Default
     private List<OrderLog> logs = new ArrayList<>();
 
@@ -87,6 +151,20 @@ public class Order implements Serializable {
         // orderNo和accessToken现在由OrderUtils生成
     }
 
+    /**
+     * 订单字段值：JSON 列有值时直接返回，否则由 order_fields 行组装（会加载字段集合）
+     */
+    public Map<String, String> resolveFieldValues() {
+        if (fieldValues != null) {
+            return fieldValues;
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        for (OrderField field : fields) {
+            values.put(field.getFieldKey(), field.getFieldValue());
+        }
+        return values;
+    }
+
     @PreUpdate
     protected void onUpdate() {
         updateTime = LocalDateTime.now();
@@ -1,11 +1,14 @@
 package com.yiyunnetwork.order.model;
 
 import com.yiyunnetwork.order.model.enums.FieldType;
+import com.yiyunnetwork.order.util.ReservedConnectionTableGenerator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import java.io.Serializable;
 
@@ -14,13 +17,22 @@ import java.io.Serializable;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "order_fields")
+@Table(name = "order_fields", indexes = {
+        @Index(name = "idx_order_fields_order_field_key", columnList = "order_id, field_key")
+})
 public class OrderField implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "order_fields_id")
+    @GenericGenerator(name = "order_fields_id", type = ReservedConnectionTableGenerator.class, parameters = {
+            @Parameter(name = "table_name", value = "id_generators"),
+            @Parameter(name = "segment_column_name", value = "sequence_name"),
+            @Parameter(name = "value_column_name", value = "next_val"),
+            @Parameter(name = "segment_value", value = "order_fields"),
+            @Parameter(name = "increment_size", value = "50")
+    })
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,11 +1,14 @@
 package com.yiyunnetwork.order.model;
 
 import com.yiyunnetwork.order.model.enums.OrderStatus;
+import com.yiyunnetwork.order.util.ReservedConnectionTableGenerator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
@@ -15,13 +18,22 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "order_logs")
+@Table(name = "order_logs", indexes = {
+        @Index(name = "idx_order_logs_order_operate_time", columnList = "order_id, operate_time DESC")
+})
 public class OrderLog implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "order_logs_id")
+    @GenericGenerator(name = "order_logs_id", type = ReservedConnectionTableGenerator.class, parameters = {
+            @Parameter(name = "table_name", value = "id_generators"),
+            @Parameter(name = "segment_column_name", value = "sequence_name"),
+            @Parameter(name = "value_column_name", value = "next_val"),
+            @Parameter(name = "segment_value", value = "order_logs"),
+            @Parameter(name = "increment_size", value = "50")
+    })
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -38,8 +50,11 @@ public class OrderLog implements Serializable {
     @Column(length = 100)
     private String operatorEmail;
 
+    /**
+     * 原状态，订单创建日志为空
+     */
     @Enumerated(EnumType.STRING)
-    @Column(nullable = false)
+    @Column
     private OrderStatus fromStatus;
 
     @Enumerated(EnumType.STRING)
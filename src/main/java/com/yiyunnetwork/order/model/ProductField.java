@@ -1,11 +1,15 @@
 package com.yiyunnetwork.order.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.yiyunnetwork.order.model.enums.FieldType;
+import com.yiyunnetwork.order.util.ReservedConnectionTableGenerator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.Type;
 
 import java.io.Serializable;
@@ -22,11 +26,19 @@ public class ProductField implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "product_fields_id")
+    @GenericGenerator(name = "product_fields_id", type = ReservedConnectionTableGenerator.class, parameters = {
+            @Parameter(name = "table_name", value = "id_generators"),
+            @Parameter(name = "segment_column_name", value = "sequence_name"),
+            @Parameter(name = "value_column_name", value = "next_val"),
+            @Parameter(name = "segment_value", value = "product_fields"),
+            @Parameter(name = "increment_size", value = "50")
+    })
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
+    @JsonIgnore // 防止商品与字段互相引用导致序列化死循环
     private Product product;
 
     @Column(nullable = false, length = 50)
@@ -58,4 +70,11 @@ public class ProductField implements Serializable {
     @Column(nullable = false)
     @Builder.Default
     private Integer displayOrder = 0;
+
+    /**
+     * 是否可搜索：JSON 存储模式下为该字段在订单表上建立生成列和索引
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean searchable = false;
 } 
\ No newline at end of file
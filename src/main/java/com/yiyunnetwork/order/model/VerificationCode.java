@@ -1,10 +1,13 @@
 package com.yiyunnetwork.order.model;
 
+import com.yiyunnetwork.order.util.ReservedConnectionTableGenerator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
@@ -20,7 +23,14 @@ public class VerificationCode implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "verification_codes_id")
+    @GenericGenerator(name = "verification_codes_id", type = ReservedConnectionTableGenerator.class, parameters = {
+            @Parameter(name = "table_name", value = "id_generators"),
+            @Parameter(name = "segment_column_name", value = "sequence_name"),
+            @Parameter(name = "value_column_name", value = "next_val"),
+            @Parameter(name = "segment_value", value = "verification_codes"),
+            @Parameter(name = "increment_size", value = "50")
+    })
     private Long id;
 
     @Column(nullable = false, length = 100)
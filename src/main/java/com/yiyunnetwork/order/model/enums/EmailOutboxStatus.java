@@ -0,0 +1,21 @@
+package com.yiyunnetwork.order.model.enums;
+
+/**
+ * 发件箱邮件状态枚举
+ */
+public enum EmailOutboxStatus {
+    /**
+     * 待发送（包括等待重试）
+     */
+    PENDING,
+    
+    /**
+     * 已发送
+     */
+    SENT,
+    
+    /**
+     * 超过最大重试次数，放弃发送
+     */
+    FAILED
+}
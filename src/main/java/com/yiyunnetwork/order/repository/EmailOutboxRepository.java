@@ -0,0 +1,39 @@
+package com.yiyunnetwork.order.repository;
+
+import com.yiyunnetwork.order.model.EmailOutbox;
+import com.yiyunnetwork.order.model.enums.EmailOutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    /**
+     * 领取到期的待发送邮件，跳过其他节点正在领取的行（SELECT ... FOR UPDATE SKIP LOCKED）
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<EmailOutbox> findByStatusAndNextAttemptTimeLessThanEqualOrderByIdAsc(
+            EmailOutboxStatus status, LocalDateTime time, Pageable pageable);
+    
+    long countByStatus(EmailOutboxStatus status);
+    
+    /**
+     * 查找可清理的已结束邮件ID，按 (status, next_attempt_time) 索引扫描；
+     * 已结束邮件的 next_attempt_time 为最后一次领取时间加租约时长
+     */
+    @Query("SELECT e.id FROM EmailOutbox e WHERE e.status = :status AND e.nextAttemptTime < :before ORDER BY e.nextAttemptTime")
+    List<Long> findIdsToPurge(@Param("status") EmailOutboxStatus status,
+                              @Param("before") LocalDateTime before,
+                              Pageable pageable);
+}
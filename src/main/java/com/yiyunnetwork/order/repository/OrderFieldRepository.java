@@ -5,8 +5,10 @@ import com.yiyunnetwork.order.model.OrderField;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
 public interface OrderFieldRepository extends JpaRepository<OrderField, Long> {
@@ -16,4 +18,6 @@ public interface OrderFieldRepository extends JpaRepository<OrderField, Long> {
     Optional<OrderField> findByOrderAndFieldKey(Order order, String fieldKey);
     
     void deleteByOrder(Order order);
+    
+    List<OrderField> findByOrderIdIn(Collection<UUID> orderIds);
 } 
\ No newline at end of file
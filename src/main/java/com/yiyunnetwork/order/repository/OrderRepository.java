@@ -3,38 +3,259 @@ package com.yiyunnetwork.order.repository;
 import com.yiyunnetwork.order.model.Order;
 import com.yiyunnetwork.order.model.User;
 import com.yiyunnetwork.order.model.enums.OrderStatus;
+import com.yiyunnetwork.order.repository.projection.OrderListRow;
+import com.yiyunnetwork.order.repository.projection.OrderVersion;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, UUID> {
 
+    @Override
+    @EntityGraph(Order.GRAPH_LIST_ROW)
+    Page<Order> findAll(Pageable pageable);
+
+    /**
+     * 管理端订单详情，单值关联与订单字段一次查出
+     */
+    @EntityGraph(Order.GRAPH_DETAIL)
+    Optional<Order> findDetailById(UUID id);
+
+    @EntityGraph(Order.GRAPH_PUBLIC_VIEW)
     Optional<Order> findByIdAndAccessToken(UUID id, String accessToken);
+
+    /**
+     * JSON 存储模式下的管理端订单详情，字段值在订单行中，不关联 order_fields
+     */
+    @EntityGraph(Order.GRAPH_LIST_ROW)
+    Optional<Order> findWithoutFieldsById(UUID id);
+
+    /**
+     * JSON 存储模式下的客户端订单查询，字段值在订单行中，不关联 order_fields
+     */
+    @EntityGraph(attributePaths = "product")
+    Optional<Order> findWithoutFieldsByIdAndAccessToken(UUID id, String accessToken);
+
+    /**
+     * 按主键顺序查找字段值尚未迁移到 JSON 列的订单
+     */
+    @Query("SELECT o.id FROM Order o WHERE o.fieldValues IS NULL AND o.id > :after ORDER BY o.id")
+    List<UUID> findIdsWithoutFieldValues(@Param("after") UUID after, Pageable pageable);
+
+    /**
+     * 写入迁移后的字段值，不改变版本号和更新时间
+     */
+    @Modifying
+    @Query("UPDATE Order o SET o.fieldValues = :fieldValues WHERE o.id = :id AND o.fieldValues IS NULL")
+    int updateFieldValues(@Param("id") UUID id, @Param("fieldValues") Map<String, String> fieldValues);
     
     Optional<Order> findByOrderNo(String orderNo);
     
+    /**
+     * 最大的订单号（订单号以日期时间开头，即最近发出的），走 order_no 唯一索引，空表时为 null
+     */
+    @Query("SELECT MAX(o.orderNo) FROM Order o")
+    String findMaxOrderNo();
+    
     List<Order> findByStatus(OrderStatus status);
     
     List<Order> findByCustomerEmail(String email);
     
+    @EntityGraph(Order.GRAPH_LIST_ROW)
     Page<Order> findByCustomerEmail(String email, Pageable pageable);
     
+    @EntityGraph(Order.GRAPH_LIST_ROW)
     Page<Order> findByStatus(OrderStatus status, Pageable pageable);
     
+    @EntityGraph(Order.GRAPH_LIST_ROW)
     Page<Order> findByAgent(User agent, Pageable pageable);
     
+    @EntityGraph(Order.GRAPH_LIST_ROW)
     Page<Order> findByAgentAndStatus(User agent, OrderStatus status, Pageable pageable);
     
+    @EntityGraph(Order.GRAPH_LIST_ROW)
     Page<Order> findByAdmin(User admin, Pageable pageable);
     
+    @EntityGraph(Order.GRAPH_LIST_ROW)
     Page<Order> findByAdminAndStatus(User admin, OrderStatus status, Pageable pageable);
     
+    @EntityGraph(Order.GRAPH_LIST_ROW)
     Page<Order> findByOrderNoContainingOrCustomerEmailContaining(
             String orderNo, String email, Pageable pageable);
-} 
\ No newline at end of file
+
+    /**
+     * 订单列表行查询的公共部分，只选取列表展示所需的列
+     */
+    String LIST_ROW_SELECT = "SELECT o.id AS id, o.orderNo AS orderNo, o.status AS status, "
+            + "p.name AS productName, o.totalAmount AS totalAmount, o.createTime AS createTime, "
+            + "o.updateTime AS updateTime, o.completeTime AS completeTime, a.username AS agentName "
+            + "FROM Order o JOIN o.product p LEFT JOIN o.agent a";
+
+    @Query(value = LIST_ROW_SELECT,
+            countQuery = "SELECT COUNT(o) FROM Order o")
+    Page<OrderListRow> findListRows(Pageable pageable);
+
+    @Query(value = LIST_ROW_SELECT + " WHERE o.status = :status",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.status = :status")
+    Page<OrderListRow> findListRowsByStatus(@Param("status") OrderStatus status, Pageable pageable);
+
+    @Query(value = LIST_ROW_SELECT + " WHERE o.agent = :agent",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.agent = :agent")
+    Page<OrderListRow> findListRowsByAgent(@Param("agent") User agent, Pageable pageable);
+
+    @Query(value = LIST_ROW_SELECT + " WHERE o.agent = :agent AND o.status = :status",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.agent = :agent AND o.status = :status")
+    Page<OrderListRow> findListRowsByAgentAndStatus(@Param("agent") User agent,
+                                                    @Param("status") OrderStatus status,
+                                                    Pageable pageable);
+
+    @Query(LIST_ROW_SELECT + " WHERE o.id IN :ids")
+    List<OrderListRow> findListRowsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * 订单版本查询，只读取主键、更新时间、版本号和代理用户名
+     */
+    String VERSION_SELECT = "SELECT o.id AS id, o.updateTime AS updateTime, o.version AS version, "
+            + "a.username AS agentName "
+            + "FROM Order o LEFT JOIN o.agent a";
+
+    @Query(VERSION_SELECT + " WHERE o.id = :id")
+    Optional<OrderVersion> findVersionById(@Param("id") UUID id);
+
+    @Query(VERSION_SELECT + " WHERE o.id = :id AND o.accessToken = :token")
+    Optional<OrderVersion> findVersionByIdAndAccessToken(@Param("id") UUID id, @Param("token") String token);
+
+    /**
+     * 条件更新订单状态：只有订单仍处于原状态且版本号未变时才更新，版本号加一
+     * 并发变更同一订单时只有一个能成功，其余返回0，不需要行锁
+     *
+     * @return 更新的行数，0表示订单已被其他操作修改
+     */
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :toStatus, o.remark = :remark, o.agent = :agent, o.admin = :admin, "
+            + "o.updateTime = :updateTime, o.completeTime = :completeTime, o.version = o.version + 1 "
+            + "WHERE o.id = :id AND o.status = :fromStatus AND o.version = :version")
+    int transitionStatus(@Param("id") UUID id,
+                         @Param("fromStatus") OrderStatus fromStatus,
+                         @Param("version") Long version,
+                         @Param("toStatus") OrderStatus toStatus,
+                         @Param("remark") String remark,
+                         @Param("agent") User agent,
+                         @Param("admin") User admin,
+                         @Param("updateTime") LocalDateTime updateTime,
+                         @Param("completeTime") LocalDateTime completeTime);
+
+    /**
+     * 批量状态变更的公共部分，用于审核：只更新状态、备注和更新时间，版本号加一
+     * 同一版本号的订单一条语句更新，仍以原状态和版本号为条件；调用前先以 findAllByIdForUpdate 锁定订单
+     */
+    String BULK_TRANSITION_SET = "UPDATE Order o SET o.status = :toStatus, o.remark = :remark, "
+            + "o.updateTime = :updateTime, o.version = o.version + 1";
+
+    String BULK_TRANSITION_WHERE = " WHERE o.id IN :ids AND o.status = :fromStatus AND o.version = :version";
+
+    @Modifying
+    @Query(BULK_TRANSITION_SET + BULK_TRANSITION_WHERE)
+    int bulkTransitionStatus(@Param("ids") Collection<UUID> ids,
+                             @Param("fromStatus") OrderStatus fromStatus,
+                             @Param("version") Long version,
+                             @Param("toStatus") OrderStatus toStatus,
+                             @Param("remark") String remark,
+                             @Param("updateTime") LocalDateTime updateTime);
+
+    /**
+     * 批量状态变更并将操作人设为代理
+     */
+    @Modifying
+    @Query(BULK_TRANSITION_SET + ", o.agent = :operator" + BULK_TRANSITION_WHERE)
+    int bulkTransitionStatusAssigningAgent(@Param("ids") Collection<UUID> ids,
+                                           @Param("fromStatus") OrderStatus fromStatus,
+                                           @Param("version") Long version,
+                                           @Param("toStatus") OrderStatus toStatus,
+                                           @Param("remark") String remark,
+                                           @Param("updateTime") LocalDateTime updateTime,
+                                           @Param("operator") User operator);
+
+    /**
+     * 批量状态变更并将操作人设为超管
+     */
+    @Modifying
+    @Query(BULK_TRANSITION_SET + ", o.admin = :operator" + BULK_TRANSITION_WHERE)
+    int bulkTransitionStatusAssigningAdmin(@Param("ids") Collection<UUID> ids,
+                                           @Param("fromStatus") OrderStatus fromStatus,
+                                           @Param("version") Long version,
+                                           @Param("toStatus") OrderStatus toStatus,
+                                           @Param("remark") String remark,
+                                           @Param("updateTime") LocalDateTime updateTime,
+                                           @Param("operator") User operator);
+
+    /**
+     * 批量审核前按主键顺序加载并锁定订单（SELECT ... FOR UPDATE），
+     * 事务结束前其他操作无法修改，随后的条件更新写入的正是这些订单
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids ORDER BY o.id")
+    List<Order> findAllByIdForUpdate(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * 游标分页条件：位于 (createTime, id) 之后（按倒序）的订单
+     * 先用 createTime 上界限定索引范围，再排除同一时刻已返回的记录
+     */
+    String KEYSET_AFTER = "o.createTime <= :createTime AND (o.createTime < :createTime OR o.id < :id)";
+
+    String KEYSET_ORDER = " ORDER BY o.createTime DESC, o.id DESC";
+
+    @Query(LIST_ROW_SELECT + " WHERE " + KEYSET_AFTER + KEYSET_ORDER)
+    List<OrderListRow> scrollListRows(@Param("createTime") LocalDateTime createTime,
+                                      @Param("id") UUID id,
+                                      Pageable pageable);
+
+    @Query(LIST_ROW_SELECT + " WHERE o.status = :status AND " + KEYSET_AFTER + KEYSET_ORDER)
+    List<OrderListRow> scrollListRowsByStatus(@Param("status") OrderStatus status,
+                                              @Param("createTime") LocalDateTime createTime,
+                                              @Param("id") UUID id,
+                                              Pageable pageable);
+
+    @Query(LIST_ROW_SELECT + " WHERE o.agent = :agent AND " + KEYSET_AFTER + KEYSET_ORDER)
+    List<OrderListRow> scrollListRowsByAgent(@Param("agent") User agent,
+                                             @Param("createTime") LocalDateTime createTime,
+                                             @Param("id") UUID id,
+                                             Pageable pageable);
+
+    @Query(LIST_ROW_SELECT + " WHERE o.agent = :agent AND o.status = :status AND " + KEYSET_AFTER + KEYSET_ORDER)
+    List<OrderListRow> scrollListRowsByAgentAndStatus(@Param("agent") User agent,
+                                                      @Param("status") OrderStatus status,
+                                                      @Param("createTime") LocalDateTime createTime,
+                                                      @Param("id") UUID id,
+                                                      Pageable pageable);
+
+    @EntityGraph(Order.GRAPH_LIST_ROW)
+    @Query("SELECT o FROM Order o WHERE o.customerEmail = :email AND " + KEYSET_AFTER + KEYSET_ORDER)
+    List<Order> scrollByCustomerEmail(@Param("email") String email,
+                                      @Param("createTime") LocalDateTime createTime,
+                                      @Param("id") UUID id,
+                                      Pageable pageable);
+
+    long countByStatus(OrderStatus status);
+
+    long countByAgent(User agent);
+
+    long countByAgentAndStatus(User agent, OrderStatus status);
+
+    long countByCustomerEmail(String email);
+}
\ No newline at end of file
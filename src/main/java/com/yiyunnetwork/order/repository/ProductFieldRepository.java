@@ -16,4 +16,6 @@ public interface ProductFieldRepository extends JpaRepository<ProductField, Long
     Optional<ProductField> findByProductAndFieldKey(Product product, String fieldKey);
     
     void deleteByProduct(Product product);
+    
+    List<ProductField> findBySearchableTrue();
 } 
\ No newline at end of file
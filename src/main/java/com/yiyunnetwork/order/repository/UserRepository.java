@@ -2,8 +2,14 @@ package com.yiyunnetwork.order.repository;
 
 import com.yiyunnetwork.order.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
@@ -16,4 +22,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
     
     boolean existsByEmail(String email);
+    
+    /**
+     * 批量更新最后登录时间，一条语句覆盖一批用户
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.lastLoginTime = :time WHERE u.username IN :usernames")
+    int updateLastLoginTime(@Param("usernames") Collection<String> usernames, @Param("time") LocalDateTime time);
 } 
\ No newline at end of file
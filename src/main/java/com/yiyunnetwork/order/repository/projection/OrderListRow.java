@@ -0,0 +1,31 @@
+package com.yiyunnetwork.order.repository.projection;
+
+import com.yiyunnetwork.order.model.enums.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 订单列表行投影，只查询列表页展示所需的列
+ */
+public interface OrderListRow {
+
+    UUID getId();
+
+    String getOrderNo();
+
+    OrderStatus getStatus();
+
+    String getProductName();
+
+    BigDecimal getTotalAmount();
+
+    LocalDateTime getCreateTime();
+
+    LocalDateTime getUpdateTime();
+
+    LocalDateTime getCompleteTime();
+
+    String getAgentName();
+}
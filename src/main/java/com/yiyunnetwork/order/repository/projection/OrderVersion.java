@@ -0,0 +1,24 @@
+package com.yiyunnetwork.order.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 订单版本信息，用于生成 ETag / Last-Modified，不加载订单详情
+ */
+public interface OrderVersion {
+
+    UUID getId();
+
+    LocalDateTime getUpdateTime();
+
+    /**
+     * 乐观锁版本号，每次变更递增
+     */
+    Long getVersion();
+
+    /**
+     * 负责的代理用户名，用于代理查看时的权限判断
+     */
+    String getAgentName();
+}
@@ -1,7 +1,10 @@
 package com.yiyunnetwork.order.service;
 
+import java.util.List;
+
 /**
  * 邮件服务接口
+ * 所有邮件先写入发件箱（email_outbox），与调用方事务一起提交，再由调度器批量投递
  */
 public interface EmailService {
     
@@ -42,4 +45,19 @@ public interface EmailService {
      * @param text    内容
      */
     void sendSimpleTextEmail(String to, String subject, String text);
+    
+    /**
+     * 批量发送订单状态变更通知邮件，一次写入发件箱
+     * 
+     * @param orders  变更的订单（收件人、订单编号、订单访问链接）
+     * @param status  订单状态
+     * @param remarks 备注
+     */
+    void sendOrderStatusChangeNotifications(List<StatusChangeMail> orders, String status, String remarks);
+    
+    /**
+     * 订单状态变更通知的收件信息
+     */
+    record StatusChangeMail(String to, String orderNo, String orderLink) {
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.yiyunnetwork.order.service;
+
+/**
+ * 用户最后登录时间记录
+ * 在内存中合并同一用户的多次访问，定期批量写入数据库
+ */
+public interface LastLoginService {
+    
+    /**
+     * 记录用户的一次访问，不访问数据库和Redis
+     * 
+     * @param username 用户名
+     */
+    void record(String username);
+    
+    /**
+     * 将内存中待写入的最后登录时间批量写入数据库
+     */
+    void flush();
+}
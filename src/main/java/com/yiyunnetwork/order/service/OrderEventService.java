@@ -0,0 +1,44 @@
+package com.yiyunnetwork.order.service;
+
+import com.yiyunnetwork.order.model.OrderLog;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.UUID;
+
+/**
+ * 订单状态变更推送
+ * 订单日志在事务提交后通过Redis发布到所有节点，各节点再推送给本地的SSE连接，
+ * 已连接的客户端无需轮询数据库
+ */
+public interface OrderEventService {
+    
+    /**
+     * 订阅单个订单的状态变更，调用方需先校验访问令牌
+     * 
+     * @param orderId 订单ID
+     * @return SSE连接
+     */
+    SseEmitter subscribeOrder(UUID orderId);
+    
+    /**
+     * 订阅代理负责的订单的状态变更
+     * 
+     * @param agentName 代理用户名
+     * @return SSE连接
+     */
+    SseEmitter subscribeAgent(String agentName);
+    
+    /**
+     * 订阅所有订单的状态变更，仅限超管
+     * 
+     * @return SSE连接
+     */
+    SseEmitter subscribeAll();
+    
+    /**
+     * 发布订单状态变更，在事务中调用时于提交后发布，事务回滚则不发布
+     * 
+     * @param orderLog 已保存的订单日志，其订单需已设置代理（如有）
+     */
+    void publish(OrderLog orderLog);
+}
@@ -0,0 +1,51 @@
+package com.yiyunnetwork.order.service;
+
+import com.yiyunnetwork.order.model.ProductField;
+import com.yiyunnetwork.order.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * 订单字段值存储方式
+ * <p>
+ * eav：每个字段一行 order_fields（默认）；
+ * json：字段值整体存为 orders.field_values 一列，创建和读取订单只涉及订单一行，
+ * 可搜索字段在订单表上建立生成列和索引（仅 MySQL），按字段值查找订单时使用。
+ * 读取时两种方式都兼容：JSON 列为空的订单仍从 order_fields 读取，切换为 json 后由后台任务逐批迁移。
+ */
+public interface OrderFieldStorageService {
+    
+    /**
+     * 新订单的字段值是否写入 JSON 列
+     */
+    boolean isJsonStorage();
+    
+    /**
+     * 为可搜索字段建立生成列和索引，在事务提交后异步执行，已存在的跳过
+     * 
+     * @param fields 商品字段，只处理标记为可搜索的字段
+     */
+    void ensureSearchableColumns(Collection<ProductField> fields);
+    
+    /**
+     * 将一批字段值尚未迁移的订单从 order_fields 写入 JSON 列，order_fields 中的行保留
+     * 
+     * @return 本批迁移的订单数，为0表示已全部迁移
+     */
+    int migrateBatch();
+    
+    /**
+     * 按可搜索字段的值精确查找订单ID，使用该字段的生成列和索引，按创建时间倒序
+     * 
+     * @param fieldKey 字段标识，需标记为可搜索且已建立生成列
+     * @param value    字段值，超过生成列长度的部分不参与比较
+     * @param agent    只查找该代理负责的订单，为空时查找全部订单
+     * @param pageable 分页信息，排序固定为创建时间倒序
+     * @return 订单ID分页结果
+     * @throws com.yiyunnetwork.order.exception.BusinessException 非 JSON 存储模式、非 MySQL 或字段不可搜索
+     */
+    Page<UUID> findOrderIdsByField(String fieldKey, String value, User agent, Pageable pageable);
+}
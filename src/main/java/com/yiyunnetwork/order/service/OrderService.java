@@ -1,16 +1,22 @@
 package com.yiyunnetwork.order.service;
 
+import com.yiyunnetwork.order.dto.CursorPage;
 import com.yiyunnetwork.order.dto.order.OrderCreateDTO;
+import com.yiyunnetwork.order.dto.order.OrderReviewResultDTO;
 import com.yiyunnetwork.order.dto.order.OrderStatusUpdateDTO;
 import com.yiyunnetwork.order.model.Order;
 import com.yiyunnetwork.order.model.OrderLog;
 import com.yiyunnetwork.order.model.User;
 import com.yiyunnetwork.order.model.enums.OrderStatus;
+import com.yiyunnetwork.order.repository.projection.OrderListRow;
+import com.yiyunnetwork.order.repository.projection.OrderVersion;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -34,6 +40,14 @@ public interface OrderService {
      */
     Order getOrder(UUID id);
     
+    /**
+     * 获取订单详情（按详情加载计划一次抓取关联数据）
+     * 
+     * @param id 订单ID
+     * @return 订单信息
+     */
+    Order getOrderDetail(UUID id);
+    
     /**
      * 根据订单号获取订单
      * 
@@ -51,6 +65,23 @@ public interface OrderService {
      */
     Order getOrderByIdAndToken(UUID id, String token);
     
+    /**
+     * 获取订单版本信息（用于 ETag / Last-Modified），不加载订单详情
+     * 
+     * @param id 订单ID
+     * @return 订单版本信息，订单不存在时为空
+     */
+    Optional<OrderVersion> getOrderVersion(UUID id);
+    
+    /**
+     * 根据ID和访问令牌获取订单版本信息（用于 ETag / Last-Modified）
+     * 
+     * @param id    订单ID
+     * @param token 访问令牌
+     * @return 订单版本信息，订单不存在或令牌无效时为空
+     */
+    Optional<OrderVersion> getOrderVersion(UUID id, String token);
+    
     /**
      * 根据状态获取订单列表
      * 
@@ -117,6 +148,28 @@ public interface OrderService {
      */
     Order adminReviewOrder(UUID id, boolean approved, User admin, String remark);
     
+    /**
+     * 代理批量审核订单，按订单返回处理结果，部分订单失败不影响其他订单
+     * 
+     * @param ids      订单ID
+     * @param approved 是否通过
+     * @param agent    代理
+     * @param remark   备注
+     * @return 每个订单的处理结果，顺序与请求一致
+     */
+    List<OrderReviewResultDTO> agentReviewOrders(Collection<UUID> ids, boolean approved, User agent, String remark);
+    
+    /**
+     * 超管批量审核订单，按订单返回处理结果，部分订单失败不影响其他订单
+     * 
+     * @param ids      订单ID
+     * @param approved 是否通过
+     * @param admin    超管
+     * @param remark   备注
+     * @return 每个订单的处理结果，顺序与请求一致
+     */
+    List<OrderReviewResultDTO> adminReviewOrders(Collection<UUID> ids, boolean approved, User admin, String remark);
+    
     /**
      * 标记订单为执行中
      * 
@@ -201,4 +254,74 @@ public interface OrderService {
      * @return 订单分页结果
      */
     Page<Order> getOrdersByAdminAndStatus(User admin, OrderStatus status, Pageable pageable);
-} 
\ No newline at end of file
+    
+    /**
+     * 分页获取订单列表行（只包含列表展示所需的列）
+     * 
+     * @param pageable 分页信息
+     * @return 订单列表行分页结果
+     */
+    Page<OrderListRow> getOrderRows(Pageable pageable);
+    
+    /**
+     * 根据状态分页获取订单列表行
+     * 
+     * @param status   订单状态
+     * @param pageable 分页信息
+     * @return 订单列表行分页结果
+     */
+    Page<OrderListRow> getOrderRowsByStatus(OrderStatus status, Pageable pageable);
+    
+    /**
+     * 分页获取特定代理负责的订单列表行
+     * 
+     * @param agent    代理用户
+     * @param pageable 分页信息
+     * @return 订单列表行分页结果
+     */
+    Page<OrderListRow> getOrderRowsByAgent(User agent, Pageable pageable);
+    
+    /**
+     * 根据状态分页获取特定代理负责的订单列表行
+     * 
+     * @param agent    代理用户
+     * @param status   订单状态
+     * @param pageable 分页信息
+     * @return 订单列表行分页结果
+     */
+    Page<OrderListRow> getOrderRowsByAgentAndStatus(User agent, OrderStatus status, Pageable pageable);
+    
+    /**
+     * 按可搜索字段的值分页查找订单列表行，按创建时间倒序（仅 JSON 存储模式，使用字段的生成列）
+     * 
+     * @param fieldKey 字段标识
+     * @param value    字段值，精确匹配
+     * @param agent    代理用户，为null时不限代理
+     * @param pageable 分页信息
+     * @return 订单列表行分页结果
+     */
+    Page<OrderListRow> searchOrderRowsByField(String fieldKey, String value, User agent, Pageable pageable);
+    
+    /**
+     * 游标分页获取订单列表行，按创建时间倒序
+     * 
+     * @param agent     代理用户，为null时不限代理
+     * @param status    订单状态，为null时不限状态
+     * @param cursor    上一页返回的游标，为空时从第一页开始
+     * @param size      每页大小
+     * @param withTotal 是否统计总数
+     * @return 订单列表行游标分页结果
+     */
+    CursorPage<OrderListRow> scrollOrderRows(User agent, OrderStatus status, String cursor, int size, boolean withTotal);
+    
+    /**
+     * 游标分页获取客户订单，按创建时间倒序
+     * 
+     * @param email     客户邮箱
+     * @param cursor    上一页返回的游标，为空时从第一页开始
+     * @param size      每页大小
+     * @param withTotal 是否统计总数
+     * @return 订单游标分页结果
+     */
+    CursorPage<Order> scrollOrdersByCustomerEmail(String email, String cursor, int size, boolean withTotal);
+}
\ No newline at end of file
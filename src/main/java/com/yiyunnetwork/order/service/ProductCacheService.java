@@ -0,0 +1,60 @@
+package com.yiyunnetwork.order.service;
+
+import com.yiyunnetwork.order.model.Product;
+import com.yiyunnetwork.order.util.ProductFormSchema;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 商品目录缓存
+ * 缓存商品（含字段）及启用商品列表，商品变更后失效，并通知集群内其他节点
+ * 缓存中的商品实体为共享的只读对象，调用方不能修改
+ */
+public interface ProductCacheService {
+    
+    /**
+     * 获取商品，未命中时通过loader加载并缓存
+     * 
+     * @param id     商品ID
+     * @param loader 缓存未命中时的加载方法，需返回已初始化字段的商品
+     * @return 商品
+     */
+    Product getProduct(Long id, Function<Long, Product> loader);
+    
+    /**
+     * 获取所有启用的商品，未命中时通过loader加载并缓存
+     * 
+     * @param loader 缓存未命中时的加载方法
+     * @return 启用的商品列表
+     */
+    List<Product> getEnabledProducts(Supplier<List<Product>> loader);
+    
+    /**
+     * 分页获取启用的商品，未命中时通过loader加载并缓存
+     * 
+     * @param pageable 分页参数
+     * @param loader   缓存未命中时的加载方法
+     * @return 商品分页列表
+     */
+    Page<Product> getEnabledProducts(Pageable pageable, Function<Pageable, Page<Product>> loader);
+    
+    /**
+     * 获取商品的预编译表单结构，缓存中的版本与商品更新时间不一致时重新编译
+     * 
+     * @param product  商品
+     * @param compiler 编译方法
+     * @return 表单结构
+     */
+    ProductFormSchema getFormSchema(Product product, Function<Product, ProductFormSchema> compiler);
+    
+    /**
+     * 使指定商品（含表单结构）及所有启用商品列表的缓存失效（当前节点立即失效，事务提交后再次失效并广播到其他节点）
+     * 
+     * @param productId 商品ID
+     */
+    void evict(Long productId);
+}
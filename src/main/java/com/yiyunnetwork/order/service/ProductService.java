@@ -30,7 +30,8 @@ public interface ProductService {
     Product updateProduct(Long id, ProductDTO productDTO);
     
     /**
-     * 获取商品详情
+     * 获取商品详情，从商品目录缓存读取
+     * 返回的商品为缓存中共享的只读对象，调用方不能修改；需要修改时通过 updateProduct 等方法
      * 
      * @param id 商品ID
      * @return 商品信息
@@ -45,14 +46,16 @@ public interface ProductService {
     void deleteProduct(Long id);
     
     /**
-     * 获取所有已启用商品
+     * 获取所有已启用商品，从商品目录缓存读取
+     * 返回不可修改的列表，其中的商品为共享的只读对象
      * 
      * @return 商品列表
      */
     List<Product> getEnabledProducts();
     
     /**
-     * 分页获取所有已启用商品
+     * 分页获取所有已启用商品，从商品目录缓存读取
+     * 返回的分页内容不可修改，其中的商品为共享的只读对象
      * 
      * @param pageable 分页信息
      * @return 商品分页结果
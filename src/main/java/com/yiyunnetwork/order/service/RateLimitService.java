@@ -0,0 +1,53 @@
+package com.yiyunnetwork.order.service;
+
+/**
+ * 公开接口限流
+ * <p>
+ * 每个路由可配置为本节点限流（local）或集群限流（redis）：
+ * 集群模式下令牌桶保存在 Redis 中，由脚本原子地补充和取出令牌，各节点每次租用一小批令牌在本地消耗，
+ * 不必每个请求都访问 Redis，未用完的令牌到期后归还；Redis 不可用时退回本节点限流，并按间隔试探是否恢复。
+ * 集群模式要求 Redis 5 及以上版本
+ */
+public interface RateLimitService {
+    
+    /**
+     * 限流的路由，名称与配置项 rate-limit.&lt;路由&gt;.* 对应
+     */
+    enum Route {
+        ORDER("order"),
+        VERIFICATION_CODE("verification-code");
+        
+        private final String key;
+        
+        Route(String key) {
+            this.key = key;
+        }
+        
+        public String getKey() {
+            return key;
+        }
+    }
+    
+    /**
+     * 限流结果
+     * 
+     * @param allowed           是否放行
+     * @param retryAfterSeconds 未放行时建议的重试间隔，单位秒
+     */
+    record Decision(boolean allowed, long retryAfterSeconds) {
+        
+        public static final Decision ALLOWED = new Decision(true, 0);
+        
+        public static Decision denied(long retryAfterMillis) {
+            return new Decision(false, Math.max(1, (retryAfterMillis + 999) / 1000));
+        }
+    }
+    
+    /**
+     * 从指定路由的桶中取出一个令牌
+     * 
+     * @param route 路由
+     * @param key   限流对象，如 "ip:1.2.3.4"、"email:a@example.com"
+     */
+    Decision tryConsume(Route route, String key);
+}
@@ -0,0 +1,28 @@
+package com.yiyunnetwork.order.service;
+
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.function.Function;
+
+/**
+ * 用户认证信息缓存
+ * 缓存JWT认证时加载的UserDetails，用户信息变更后失效，并通知集群内其他节点
+ */
+public interface UserCacheService {
+    
+    /**
+     * 获取用户认证信息，未命中时通过loader加载并缓存
+     * 
+     * @param username 用户名
+     * @param loader   缓存未命中时的加载方法
+     * @return 用户认证信息
+     */
+    UserDetails getUserDetails(String username, Function<String, UserDetails> loader);
+    
+    /**
+     * 使指定用户的缓存失效（当前节点立即失效，事务提交后再次失效并广播到其他节点）
+     * 
+     * @param username 用户名
+     */
+    void evict(String username);
+}
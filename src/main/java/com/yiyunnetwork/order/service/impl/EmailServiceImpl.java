@@ -1,13 +1,34 @@
 package com.yiyunnetwork.order.service.impl;
 
+import com.yiyunnetwork.order.model.EmailOutbox;
+import com.yiyunnetwork.order.model.enums.EmailOutboxStatus;
+import com.yiyunnetwork.order.repository.EmailOutboxRepository;
 import com.yiyunnetwork.order.service.EmailService;
+import com.yiyunnetwork.order.util.ConcurrencyLimitedExecutor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @RequiredArgsConstructor
@@ -15,15 +36,69 @@ import org.springframework.stereotype.Service;
 public class EmailServiceImpl implements EmailService {
 
     private final JavaMailSender mailSender;
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    // 并发上限为 email-outbox.pool-size，即同时使用的SMTP连接数
+    @Qualifier("emailExecutor")
+    private final ConcurrencyLimitedExecutor emailExecutor;
     
     @Value("${spring.mail.username}")
     private String fromEmail;
     
     @Value("${system.display-name:订单系统}")
     private String systemName;
+    
+    @Value("${email-outbox.messages-per-connection:25}")
+    private int messagesPerConnection; // 每个连接每次调度最多发送的邮件数，即单连接限速
+    
+    @Value("${email-outbox.max-attempts:5}")
+    private int maxAttempts; // 最大投递次数，超过后标记为失败
+    
+    @Value("${email-outbox.retry-delay:30}")
+    private long retryDelay; // 首次重试间隔，之后按2倍递增，单位秒
+    
+    @Value("${email-outbox.max-retry-delay:3600}")
+    private long maxRetryDelay; // 重试间隔上限，单位秒
+    
+    @Value("${email-outbox.lease:300}")
+    private long lease; // 领取后的租约时长，节点在投递中宕机时邮件会在租约到期后重新投递，单位秒
+    
+    @Value("${email-outbox.pending-refresh-interval:30000}")
+    private long pendingRefreshInterval; // 待发送邮件数指标的刷新间隔，单位毫秒
+    
+    @Value("${email-outbox.sent-retention:7}")
+    private long sentRetention; // 已发送邮件的保留天数
+    
+    @Value("${email-outbox.failed-retention:30}")
+    private long failedRetention; // 投递失败邮件的保留天数
+    
+    @Value("${email-outbox.purge-batch-size:1000}")
+    private int purgeBatchSize; // 每次删除的邮件数，分批删除避免长时间锁表
+    
+    // 待发送邮件数，由投递调度定期刷新，指标采集时不查询数据库
+    private final AtomicLong pendingCount = new AtomicLong();
+    private volatile long pendingRefreshedAt;
+    
+    // 正在发送的连接数，调度只为空闲连接领取邮件
+    private final AtomicInteger sendingGroups = new AtomicInteger();
+    
+    private Counter sentCounter;
+    private Counter retryCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    public void init() {
+        sentCounter = dispatchCounter("sent");
+        retryCounter = dispatchCounter("retry");
+        failedCounter = dispatchCounter("failed");
+        Gauge.builder("email.outbox.pending", pendingCount, AtomicLong::get)
+                .description("发件箱中待发送的邮件数，每隔 email-outbox.pending-refresh-interval 刷新")
+                .register(meterRegistry);
+    }
 
     @Override
-    @Async("taskExecutor")
+    @Transactional
     public void sendVerificationCode(String to, String code) {
         String subject = "[" + systemName + "] 验证码";
         String content = "您好，\n\n"
@@ -36,7 +111,7 @@ public class EmailServiceImpl implements EmailService {
     }
 
     @Override
-    @Async("taskExecutor")
+    @Transactional
     public void sendOrderCreationNotification(String to, String orderNo, String orderLink) {
         String subject = "[" + systemName + "] 订单创建成功";
         
@@ -51,11 +126,36 @@ public class EmailServiceImpl implements EmailService {
     }
 
     @Override
-    @Async("taskExecutor")
+    @Transactional
     public void sendOrderStatusChangeNotification(String to, String orderNo, String status, 
                                                  String remarks, String orderLink) {
-        String subject = "[" + systemName + "] 订单状态更新";
+        sendSimpleTextEmail(to, statusChangeSubject(), statusChangeContent(orderNo, status, remarks, orderLink));
+    }
+
+    @Override
+    @Transactional
+    public void sendOrderStatusChangeNotifications(List<StatusChangeMail> orders, String status, String remarks) {
+        if (orders.isEmpty()) {
+            return;
+        }
         
+        String subject = statusChangeSubject();
+        List<EmailOutbox> emails = new ArrayList<>(orders.size());
+        for (StatusChangeMail order : orders) {
+            emails.add(EmailOutbox.builder()
+                    .recipient(order.to())
+                    .subject(subject)
+                    .content(statusChangeContent(order.orderNo(), status, remarks, order.orderLink()))
+                    .build());
+        }
+        emailOutboxRepository.saveAll(emails);
+    }
+    
+    private String statusChangeSubject() {
+        return "[" + systemName + "] 订单状态更新";
+    }
+    
+    private String statusChangeContent(String orderNo, String status, String remarks, String orderLink) {
         String statusDesc = getStatusDescription(status);
         
         String content = "您好，\n\n"
@@ -69,8 +169,7 @@ public class EmailServiceImpl implements EmailService {
                 + orderLink + "\n\n"
                 + "此致，\n"
                 + systemName + " 团队";
-        
-        sendSimpleTextEmail(to, subject, content);
+        return content;
     }
     
     private String getStatusDescription(String status) {
@@ -86,19 +185,217 @@ public class EmailServiceImpl implements EmailService {
     }
 
     @Override
-    @Async("taskExecutor")
+    @Transactional
     public void sendSimpleTextEmail(String to, String subject, String text) {
+        // 只写入发件箱，随调用方事务一起提交，由 dispatchOutbox 投递
+        emailOutboxRepository.save(EmailOutbox.builder()
+                .recipient(to)
+                .subject(subject)
+                .content(text)
+                .build());
+    }
+    
+    /**
+     * 批量投递发件箱中到期的邮件
+     * 每次调度最多 email-outbox.pool-size 个SMTP会话并行，每个会话发送不超过 messagesPerConnection 封，
+     * 因此单个连接的发送速率不超过 messagesPerConnection / 调度间隔；失败的邮件按指数退避重试。
+     * 调度线程只负责领取和提交，不等待发送完成，SMTP 服务器无响应时不会阻塞其他定时任务
+     */
+    @Scheduled(fixedDelayString = "${email-outbox.dispatch-interval:2000}")
+    public void dispatchOutbox() {
+        dispatch();
+    }
+    
+    /**
+     * 领取并提交一批邮件
+     *
+     * @return 本次提交的邮件全部发送并保存结果后完成
+     */
+    public CompletableFuture<Void> dispatch() {
+        refreshPendingCount();
+        // 上一轮仍在发送的连接不再分配邮件
+        int idleConnections = emailExecutor.getConcurrencyLimit() - sendingGroups.get();
+        if (idleConnections <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<EmailOutbox> batch;
+        try {
+            batch = transactionTemplate.execute(status -> claimBatch(idleConnections * messagesPerConnection));
+        } catch (Exception e) {
+            log.error("领取待发送邮件失败", e);
+            return CompletableFuture.completedFuture(null);
+        }
+        if (batch == null || batch.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        // 按连接分组，同一组的邮件在同一个SMTP会话中发送，只握手和认证一次
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int from = 0; from < batch.size(); from += messagesPerConnection) {
+            List<EmailOutbox> group = batch.subList(from, Math.min(from + messagesPerConnection, batch.size()));
+            sendingGroups.incrementAndGet();
+            try {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        sendGroup(group);
+                        saveResults(group);
+                    } finally {
+                        sendingGroups.decrementAndGet();
+                    }
+                }, emailExecutor));
+            } catch (Exception e) {
+                sendingGroups.decrementAndGet();
+                log.error("邮件投递任务提交失败，归还 {} 封邮件", group.size(), e);
+                release(group);
+            }
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+    }
+    
+    /**
+     * 定期清理已发送和投递失败的邮件，分批删除
+     */
+    @Scheduled(fixedDelayString = "${email-outbox.purge-interval:3600000}")
+    public void purgeOutbox() {
+        try {
+            int sent = purge(EmailOutboxStatus.SENT, LocalDateTime.now().minusDays(sentRetention));
+            int failed = purge(EmailOutboxStatus.FAILED, LocalDateTime.now().minusDays(failedRetention));
+            if (sent > 0 || failed > 0) {
+                log.info("已清理发件箱邮件：已发送 {} 封，投递失败 {} 封", sent, failed);
+            }
+        } catch (Exception e) {
+            log.error("清理发件箱失败", e);
+        }
+    }
+    
+    private int purge(EmailOutboxStatus status, LocalDateTime before) {
+        int total = 0;
+        List<Long> ids;
+        do {
+            ids = emailOutboxRepository.findIdsToPurge(status, before, PageRequest.of(0, purgeBatchSize));
+            if (!ids.isEmpty()) {
+                emailOutboxRepository.deleteAllByIdInBatch(ids);
+                total += ids.size();
+            }
+        } while (ids.size() == purgeBatchSize);
+        return total;
+    }
+    
+    private void refreshPendingCount() {
+        long now = System.currentTimeMillis();
+        if (now - pendingRefreshedAt < pendingRefreshInterval) {
+            return;
+        }
+        pendingRefreshedAt = now;
         try {
+            pendingCount.set(emailOutboxRepository.countByStatus(EmailOutboxStatus.PENDING));
+        } catch (Exception e) {
+            log.warn("统计待发送邮件数失败：{}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 通过一个SMTP会话发送一组邮件，按每封邮件的结果更新发件箱记录
+     */
+    private void sendGroup(List<EmailOutbox> group) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[group.size()];
+        for (int i = 0; i < group.size(); i++) {
+            EmailOutbox email = group.get(i);
             SimpleMailMessage message = new SimpleMailMessage();
             message.setFrom(fromEmail);
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(text);
-            
-            mailSender.send(message);
-            log.info("邮件已发送至 {}", to);
+            message.setTo(email.getRecipient());
+            message.setSubject(email.getSubject());
+            message.setText(email.getContent());
+            messages[i] = message;
+        }
+        
+        Map<Object, Exception> failedMessages = Map.of();
+        Exception groupFailure = null;
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            // 部分邮件失败，其余邮件已发送
+            failedMessages = e.getFailedMessages();
+            if (failedMessages.isEmpty()) {
+                groupFailure = e;
+            }
         } catch (Exception e) {
-            log.error("邮件发送失败", e);
+            // 连接或认证失败，整组都未发送
+            groupFailure = e;
+        }
+        
+        for (int i = 0; i < group.size(); i++) {
+            EmailOutbox email = group.get(i);
+            Exception failure = groupFailure != null ? groupFailure : failedMessages.get(messages[i]);
+            if (failure == null) {
+                email.setStatus(EmailOutboxStatus.SENT);
+                email.setSentTime(LocalDateTime.now());
+                sentCounter.increment();
+                log.info("邮件已发送至 {}", email.getRecipient());
+            } else {
+                handleFailure(email, failure);
+            }
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 领取一批到期邮件并推后其下次投递时间，使其他节点和下次调度不会重复领取
+     */
+    private List<EmailOutbox> claimBatch(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutbox> batch = emailOutboxRepository.findByStatusAndNextAttemptTimeLessThanEqualOrderByIdAsc(
+                EmailOutboxStatus.PENDING, now, PageRequest.of(0, limit));
+        for (EmailOutbox email : batch) {
+            email.setAttempts(email.getAttempts() + 1);
+            email.setNextAttemptTime(now.plusSeconds(lease));
+        }
+        return emailOutboxRepository.saveAll(batch);
+    }
+    
+    /**
+     * 保存一组邮件的发送结果；保存失败的邮件保持领取状态，租约到期后重新投递
+     */
+    private void saveResults(List<EmailOutbox> group) {
+        try {
+            emailOutboxRepository.saveAll(group);
+        } catch (Exception e) {
+            log.error("保存邮件发送结果失败", e);
+        }
+    }
+    
+    /**
+     * 归还未能提交发送的邮件，撤销本次领取计入的投递次数，下次调度即可重新领取
+     */
+    private void release(List<EmailOutbox> group) {
+        LocalDateTime now = LocalDateTime.now();
+        for (EmailOutbox email : group) {
+            email.setAttempts(email.getAttempts() - 1);
+            email.setNextAttemptTime(now);
+        }
+        saveResults(group);
+    }
+    
+    private void handleFailure(EmailOutbox email, Exception e) {
+        String error = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+        email.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+        
+        if (email.getAttempts() >= maxAttempts) {
+            email.setStatus(EmailOutboxStatus.FAILED);
+            failedCounter.increment();
+            log.error("邮件发送失败，已达到最大重试次数，收件人：{}", email.getRecipient(), e);
+            return;
+        }
+        
+        long delay = Math.min(retryDelay << Math.min(email.getAttempts() - 1, 20), maxRetryDelay);
+        email.setNextAttemptTime(LocalDateTime.now().plusSeconds(delay));
+        retryCounter.increment();
+        log.warn("邮件发送失败，{}秒后重试，收件人：{}", delay, email.getRecipient(), e);
+    }
+    
+    private Counter dispatchCounter(String result) {
+        return Counter.builder("email.outbox.dispatched")
+                .description("发件箱邮件投递次数，按结果分类")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -1,25 +1,71 @@
 package com.yiyunnetwork.order.service.impl;
 
 import com.yiyunnetwork.order.service.JwtBlacklistService;
+import com.yiyunnetwork.order.util.BloomFilter;
 import com.yiyunnetwork.order.util.JwtUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class JwtBlacklistServiceImpl implements JwtBlacklistService {
+public class JwtBlacklistServiceImpl implements JwtBlacklistService, MessageListener {
 
     private final StringRedisTemplate stringRedisTemplate;
     private final JwtUtil jwtUtil;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${jwt.blacklist.expected-insertions:10000}")
+    private int expectedInsertions; // 布隆过滤器预期容量
+    
+    @Value("${jwt.blacklist.false-positive-rate:0.01}")
+    private double falsePositiveRate; // 布隆过滤器期望误判率
     
     // Redis Key 前缀
     private static final String JWT_BLACKLIST_PREFIX = "jwt:blacklist:";
+    // 新增黑名单令牌的广播频道
+    private static final String JWT_BLACKLIST_CHANNEL = "jwt:blacklist:added";
+    
+    // 本地布隆过滤器，定期从Redis全量重建，期间通过频道增量更新
+    private volatile BloomFilter bloomFilter;
+    // 重建过程中收到的新令牌同时写入待替换的过滤器
+    private volatile BloomFilter rebuildingFilter;
+    // 首次重建完成前，本地过滤器不完整，全部回退到Redis
+    private volatile boolean ready = false;
+    
+    private Counter localNegativeCounter;
+    private Counter confirmedCounter;
+    private Counter falsePositiveCounter;
+    private Counter fallbackCounter;
+
+    @PostConstruct
+    public void init() {
+        bloomFilter = new BloomFilter(expectedInsertions, falsePositiveRate);
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(JWT_BLACKLIST_CHANNEL));
+        
+        localNegativeCounter = lookupCounter("local_negative");
+        confirmedCounter = lookupCounter("confirmed");
+        falsePositiveCounter = lookupCounter("false_positive");
+        fallbackCounter = lookupCounter("fallback");
+    }
     
     @Override
     public void addToBlacklist(String token, String username) {
@@ -43,6 +89,10 @@ public class JwtBlacklistServiceImpl implements JwtBlacklistService {
             // 将令牌添加到Redis黑名单中，过期时间为令牌的剩余有效期
             String key = JWT_BLACKLIST_PREFIX + token;
             stringRedisTemplate.opsForValue().set(key, username, ttl, TimeUnit.MILLISECONDS);
+            
+            // 先写本地过滤器，再通知其他节点
+            addToLocalFilter(token);
+            stringRedisTemplate.convertAndSend(JWT_BLACKLIST_CHANNEL, token);
             log.info("JWT token for user {} has been blacklisted", username);
         } catch (Exception e) {
             log.error("Error adding JWT token to blacklist", e);
@@ -51,7 +101,78 @@ public class JwtBlacklistServiceImpl implements JwtBlacklistService {
     
     @Override
     public boolean isBlacklisted(String token) {
+        if (!ready) {
+            fallbackCounter.increment();
+            return isBlacklistedInRedis(token);
+        }
+        
+        // 绝大多数令牌未被注销，直接在本地判定
+        if (!bloomFilter.mightContain(token)) {
+            localNegativeCounter.increment();
+            return false;
+        }
+        
+        // 过滤器命中时以Redis为准
+        boolean blacklisted = isBlacklistedInRedis(token);
+        if (blacklisted) {
+            confirmedCounter.increment();
+        } else {
+            falsePositiveCounter.increment();
+        }
+        return blacklisted;
+    }
+    
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        addToLocalFilter(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * 从Redis全量重建本地过滤器，同时清除已过期令牌留下的位
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${jwt.blacklist.rebuild-interval:300000}")
+    public void rebuildFilter() {
+        BloomFilter next = new BloomFilter(expectedInsertions, falsePositiveRate);
+        rebuildingFilter = next;
+        try {
+            int count = 0;
+            ScanOptions options = ScanOptions.scanOptions().match(JWT_BLACKLIST_PREFIX + "*").count(1000).build();
+            try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+                while (cursor.hasNext()) {
+                    next.put(cursor.next().substring(JWT_BLACKLIST_PREFIX.length()));
+                    count++;
+                }
+            }
+            bloomFilter = next;
+            ready = true;
+            log.debug("JWT blacklist bloom filter rebuilt with {} tokens", count);
+        } catch (Exception e) {
+            log.error("Failed to rebuild JWT blacklist bloom filter", e);
+        } finally {
+            rebuildingFilter = null;
+        }
+    }
+    
+    private void addToLocalFilter(String token) {
+        // 先写待替换的过滤器，再写当前过滤器：
+        // 读到 rebuildingFilter 为空时，要么重建尚未开始（之后的扫描能读到 Redis 中已写入的令牌），
+        // 要么已替换完成（随后读到的 bloomFilter 就是新过滤器），令牌不会只写进被丢弃的过滤器
+        BloomFilter rebuilding = rebuildingFilter;
+        if (rebuilding != null) {
+            rebuilding.put(token);
+        }
+        bloomFilter.put(token);
+    }
+    
+    private boolean isBlacklistedInRedis(String token) {
         String key = JWT_BLACKLIST_PREFIX + token;
-        return stringRedisTemplate.hasKey(key);
+        return Boolean.TRUE.equals(stringRedisTemplate.hasKey(key));
+    }
+    
+    private Counter lookupCounter(String result) {
+        return Counter.builder("jwt.blacklist.lookups")
+                .description("JWT黑名单查询次数，按本地过滤器判定结果分类")
+                .tag("result", result)
+                .register(meterRegistry);
     }
-} 
\ No newline at end of file
+}
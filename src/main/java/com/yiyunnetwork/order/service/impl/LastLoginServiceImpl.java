@@ -0,0 +1,104 @@
+package com.yiyunnetwork.order.service.impl;
+
+import com.yiyunnetwork.order.repository.UserRepository;
+import com.yiyunnetwork.order.service.LastLoginService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LastLoginServiceImpl implements LastLoginService {
+
+    private final UserRepository userRepository;
+    // 批量更新在独立的执行器中进行，不占用调度线程（邮件投递等调度任务共用同一调度线程）
+    @Qualifier("writeBehindExecutor")
+    private final TaskExecutor writeBehindExecutor;
+    
+    @Value("${last-login.batch-size:500}")
+    private int batchSize; // 单条UPDATE语句最多包含的用户数
+    
+    // 用户名 -> 最近一次访问时间，同一用户的多次访问只保留最新的一次
+    private final Map<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public void record(String username) {
+        pending.put(username, LocalDateTime.now());
+    }
+
+    /**
+     * 每个周期一条UPDATE语句，写入的时间取本批次中最新的访问时间，
+     * 因此最后登录时间的精度为一个刷新周期
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${last-login.flush-interval:30000}")
+    public void flush() {
+        drain(writeBehindExecutor);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        // 关闭时在当前线程同步写入
+        drain(Runnable::run);
+    }
+    
+    private void drain(Executor executor) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        
+        List<String> usernames = new ArrayList<>(batchSize);
+        LocalDateTime latest = null;
+        for (String username : pending.keySet()) {
+            // 逐个移除，移除后到达的访问会留到下个周期
+            LocalDateTime time = pending.remove(username);
+            if (time == null) {
+                continue;
+            }
+            usernames.add(username);
+            if (latest == null || time.isAfter(latest)) {
+                latest = time;
+            }
+            if (usernames.size() >= batchSize) {
+                submit(executor, usernames, latest);
+                usernames = new ArrayList<>(batchSize);
+                latest = null;
+            }
+        }
+        if (!usernames.isEmpty()) {
+            submit(executor, usernames, latest);
+        }
+    }
+    
+    private void submit(Executor executor, List<String> usernames, LocalDateTime time) {
+        try {
+            executor.execute(() -> write(usernames, time));
+        } catch (RuntimeException e) {
+            // 执行器繁忙时放回，下个周期再写入（已有更新的访问时间则保留更新的）
+            usernames.forEach(username -> pending.putIfAbsent(username, time));
+            log.warn("Last login flush deferred for {} users", usernames.size(), e);
+        }
+    }
+    
+    private void write(List<String> usernames, LocalDateTime time) {
+        try {
+            int updated = userRepository.updateLastLoginTime(usernames, time);
+            log.debug("Flushed last login time for {} users", updated);
+        } catch (Exception e) {
+            log.error("Failed to flush last login time for {} users", usernames.size(), e);
+        }
+    }
+}
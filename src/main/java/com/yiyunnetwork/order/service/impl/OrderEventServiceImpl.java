@@ -0,0 +1,297 @@
+package com.yiyunnetwork.order.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yiyunnetwork.order.dto.order.OrderStatusEventDTO;
+import com.yiyunnetwork.order.exception.BusinessException;
+import com.yiyunnetwork.order.model.OrderLog;
+import com.yiyunnetwork.order.service.OrderEventService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 订单状态推送实现
+ * <p>
+ * 心跳（调度线程）和事件分发（Redis 监听线程）只把事件放入各连接的待发送队列，
+ * 实际写出在 orderEventExecutor 上执行，同一连接的事件按顺序串行写出，
+ * 慢客户端不会阻塞调度线程或其他连接；待发送事件超过上限的连接被关闭，由客户端重连
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderEventServiceImpl implements OrderEventService, MessageListener {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    @Qualifier("orderEventExecutor")
+    private final TaskExecutor orderEventExecutor;
+    
+    @Value("${order-events.timeout:1800000}")
+    private long timeout; // SSE连接超时时间，超时后由客户端自动重连，单位毫秒
+    
+    @Value("${order-events.max-connections:10000}")
+    private int maxConnections; // 单节点最多保持的SSE连接数
+    
+    @Value("${order-events.max-pending:100}")
+    private int maxPending; // 单个连接最多积压的待发送事件数，超过时关闭连接
+    
+    // Redis 订单事件频道
+    private static final String EVENT_CHANNEL = "order:events";
+    // SSE 事件名
+    private static final String EVENT_NAME = "order-status";
+    // 订阅者分组：单个订单、代理负责的订单、全部订单
+    private static final String ORDER_PREFIX = "order:";
+    private static final String AGENT_PREFIX = "agent:";
+    private static final String ALL_KEY = "all";
+    
+    // 订阅分组 -> 本节点的SSE连接
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(EVENT_CHANNEL));
+        Gauge.builder("order.events.connections", connections, AtomicInteger::get)
+                .description("SSE connections held by this node")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public SseEmitter subscribeOrder(UUID orderId) {
+        return subscribe(ORDER_PREFIX + orderId);
+    }
+
+    @Override
+    public SseEmitter subscribeAgent(String agentName) {
+        return subscribe(AGENT_PREFIX + agentName);
+    }
+
+    @Override
+    public SseEmitter subscribeAll() {
+        return subscribe(ALL_KEY);
+    }
+
+    @Override
+    public void publish(OrderLog orderLog) {
+        // 事务内组装消息，提交后订单和代理可能已脱离会话
+        String agentName = orderLog.getOrder().getAgent() != null ? orderLog.getOrder().getAgent().getUsername() : null;
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(
+                    new OrderEventMessage(agentName, OrderStatusEventDTO.fromLog(orderLog)));
+        } catch (Exception e) {
+            log.error("Failed to serialize order event for order: " + orderLog.getOrder().getId(), e);
+            return;
+        }
+        
+        // 只推送已提交的状态，事务回滚时不发布
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishMessage(payload);
+                }
+            });
+        } else {
+            publishMessage(payload);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        OrderEventMessage eventMessage;
+        try {
+            eventMessage = objectMapper.readValue(message.getBody(), OrderEventMessage.class);
+        } catch (Exception e) {
+            log.error("Failed to parse order event message", e);
+            return;
+        }
+        
+        OrderStatusEventDTO event = eventMessage.event();
+        dispatch(ORDER_PREFIX + event.getOrderId(), event);
+        if (eventMessage.agentName() != null) {
+            dispatch(AGENT_PREFIX + eventMessage.agentName(), event);
+        }
+        dispatch(ALL_KEY, event);
+    }
+    
+    /**
+     * 定时发送心跳注释，防止代理服务器断开空闲连接，同时清理已断开的连接
+     */
+    @Scheduled(fixedDelayString = "${order-events.heartbeat-interval:25000}")
+    public void heartbeat() {
+        subscribers.values().forEach(group -> group.forEach(
+                subscriber -> subscriber.enqueue(SseEmitter.event().comment("heartbeat"))));
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        // 关闭时结束所有连接，客户端会重连到其他节点
+        subscribers.values().forEach(group -> group.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+    }
+    
+    /**
+     * 创建SSE连接
+     */
+    protected SseEmitter createEmitter() {
+        return new SseEmitter(timeout);
+    }
+    
+    private SseEmitter subscribe(String key) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw new BusinessException("推送连接数已达上限，请稍后重试");
+        }
+        
+        SseEmitter emitter = createEmitter();
+        Subscriber subscriber = new Subscriber(key, emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> remove(subscriber));
+        
+        // 在 compute 内加入，不会加入到已被并发的 remove 移出映射的集合中
+        subscribers.compute(key, (k, group) -> {
+            Set<Subscriber> target = group != null ? group : ConcurrentHashMap.newKeySet();
+            target.add(subscriber);
+            return target;
+        });
+        return emitter;
+    }
+    
+    private void remove(Subscriber subscriber) {
+        boolean[] removed = new boolean[1];
+        subscribers.computeIfPresent(subscriber.key, (k, group) -> {
+            removed[0] = group.remove(subscriber);
+            return group.isEmpty() ? null : group;
+        });
+        if (removed[0]) {
+            connections.decrementAndGet();
+        }
+    }
+    
+    private void dispatch(String key, OrderStatusEventDTO event) {
+        Set<Subscriber> group = subscribers.get(key);
+        if (group == null) {
+            return;
+        }
+        for (Subscriber subscriber : group) {
+            subscriber.enqueue(SseEmitter.event().name(EVENT_NAME).data(event));
+        }
+    }
+    
+    private void publishMessage(String payload) {
+        try {
+            stringRedisTemplate.convertAndSend(EVENT_CHANNEL, payload);
+        } catch (Exception e) {
+            log.error("Failed to publish order event", e);
+        }
+    }
+    
+    /**
+     * 一个SSE连接及其待发送事件，同一时间最多有一个写出任务在执行器上运行
+     */
+    private final class Subscriber {
+        
+        private final String key;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        
+        private Subscriber(String key, SseEmitter emitter) {
+            this.key = key;
+            this.emitter = emitter;
+        }
+        
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            if (pendingCount.incrementAndGet() > maxPending) {
+                pendingCount.decrementAndGet();
+                log.warn("SSE client is too slow, closing connection: {}", key);
+                close(null);
+                return;
+            }
+            pending.add(event);
+            schedule();
+        }
+        
+        private void schedule() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                orderEventExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                log.warn("Order event executor rejected sends, closing connection: {}", key);
+                close(null);
+            }
+        }
+        
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while ((event = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    try {
+                        emitter.send(event);
+                    } catch (Exception e) {
+                        // 客户端已断开
+                        close(e);
+                        return;
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+            // 释放标记后才加入的事件由这里补发
+            if (!pending.isEmpty()) {
+                schedule();
+            }
+        }
+        
+        private void close(Exception error) {
+            remove(this);
+            pending.clear();
+            if (error != null) {
+                emitter.completeWithError(error);
+            } else {
+                emitter.complete();
+            }
+        }
+    }
+    
+    /**
+     * Redis 消息体，代理用户名用于路由到代理的订阅
+     */
+    private record OrderEventMessage(String agentName, OrderStatusEventDTO event) {
+    }
+}
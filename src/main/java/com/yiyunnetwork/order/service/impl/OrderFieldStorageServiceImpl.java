@@ -0,0 +1,272 @@
+package com.yiyunnetwork.order.service.impl;
+
+import com.yiyunnetwork.order.exception.BusinessException;
+import com.yiyunnetwork.order.model.OrderField;
+import com.yiyunnetwork.order.model.ProductField;
+import com.yiyunnetwork.order.model.User;
+import com.yiyunnetwork.order.repository.OrderFieldRepository;
+import com.yiyunnetwork.order.repository.OrderRepository;
+import com.yiyunnetwork.order.repository.ProductFieldRepository;
+import com.yiyunnetwork.order.service.OrderFieldStorageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderFieldStorageServiceImpl implements OrderFieldStorageService {
+
+    private final OrderRepository orderRepository;
+    private final OrderFieldRepository orderFieldRepository;
+    private final ProductFieldRepository productFieldRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    // 建列和迁移在专用的单线程执行器中进行，不占用调度线程，也不阻塞其他延迟写入任务
+    @Qualifier("schemaMigrationExecutor")
+    private final TaskExecutor schemaMigrationExecutor;
+    
+    @Value("${order-fields.storage:eav}")
+    private String storage; // 新订单字段值的存储方式：eav 或 json
+    
+    @Value("${order-fields.migration-batch-size:500}")
+    private int migrationBatchSize; // 每批迁移的订单数
+    
+    // 生成列名由字段标识拼接，只允许字母、数字和下划线
+    private static final Pattern COLUMN_SAFE_KEY = Pattern.compile("[A-Za-z0-9_]{1,50}");
+    private static final String COLUMN_PREFIX = "sf_";
+    // 索引名为 idx_orders_ + 列名，MySQL 标识符最长64个字符
+    private static final int MAX_COLUMN_NAME_LENGTH = 64 - "idx_orders_".length();
+    // 生成列长度，超出部分截断，只用于搜索
+    private static final int COLUMN_LENGTH = 255;
+    
+    // 已确认存在的生成列
+    private final Set<String> provisionedColumns = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean migrating = new AtomicBoolean();
+    private volatile boolean migrated;
+    private volatile Boolean mysql;
+    // 迁移进度，按主键顺序
+    private UUID migratedUpTo = new UUID(0, 0);
+
+    @Override
+    public boolean isJsonStorage() {
+        return "json".equalsIgnoreCase(storage);
+    }
+
+    @Override
+    public void ensureSearchableColumns(Collection<ProductField> fields) {
+        if (!isJsonStorage()) {
+            return;
+        }
+        Set<String> keys = fields.stream()
+                .filter(field -> Boolean.TRUE.equals(field.getSearchable()))
+                .map(ProductField::getFieldKey)
+                .collect(Collectors.toSet());
+        if (keys.isEmpty()) {
+            return;
+        }
+        
+        // DDL 会隐式提交当前事务，提交后在独立连接上执行
+        Runnable task = () -> keys.forEach(this::ensureColumn);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schemaMigrationExecutor.execute(task);
+                }
+            });
+        } else {
+            schemaMigrationExecutor.execute(task);
+        }
+    }
+
+    @Override
+    public int migrateBatch() {
+        Integer migratedOrders = transactionTemplate.execute(status -> {
+            List<UUID> ids = orderRepository.findIdsWithoutFieldValues(
+                    migratedUpTo, PageRequest.of(0, migrationBatchSize));
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            
+            Map<UUID, Map<String, String>> values = new HashMap<>();
+            for (OrderField field : orderFieldRepository.findByOrderIdIn(ids)) {
+                values.computeIfAbsent(field.getOrder().getId(), id -> new LinkedHashMap<>())
+                        .put(field.getFieldKey(), field.getFieldValue());
+            }
+            // 没有字段的订单写入空对象，避免重复扫描
+            for (UUID id : ids) {
+                orderRepository.updateFieldValues(id, values.getOrDefault(id, Map.of()));
+            }
+            migratedUpTo = ids.get(ids.size() - 1);
+            return ids.size();
+        });
+        return migratedOrders != null ? migratedOrders : 0;
+    }
+    
+    @Override
+    public Page<UUID> findOrderIdsByField(String fieldKey, String value, User agent, Pageable pageable) {
+        String column = searchableColumn(fieldKey);
+        if (column == null) {
+            throw new BusinessException("字段不支持搜索：" + fieldKey);
+        }
+        // 生成列只保存前 COLUMN_LENGTH 个字符
+        String searchValue = value.length() > COLUMN_LENGTH ? value.substring(0, COLUMN_LENGTH) : value;
+        String from = " FROM orders WHERE " + column + " = ?" + (agent != null ? " AND agent_id = ?" : "");
+        Object[] args = agent != null ? new Object[]{searchValue, agent.getId()} : new Object[]{searchValue};
+        
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*)" + from, Long.class, args);
+        if (total == null || total == 0) {
+            return Page.empty(pageable);
+        }
+        List<UUID> ids = jdbcTemplate.query("SELECT id" + from + " ORDER BY create_time DESC, id DESC LIMIT "
+                        + pageable.getPageSize() + " OFFSET " + pageable.getOffset(),
+                (rs, rowNum) -> toUuid(rs.getBytes(1)), args);
+        return new PageImpl<>(ids, pageable, total);
+    }
+    
+    /**
+     * 字段的生成列名
+     * MySQL 列名不区分大小写，列名中包含字段标识（区分大小写）的 CRC32，仅大小写不同的两个字段对应不同的列；
+     * 后接小写的字段标识便于辨认，超长时截断，保证索引名不超过64个字符
+     */
+    public static String searchableColumnName(String fieldKey) {
+        CRC32 crc = new CRC32();
+        crc.update(fieldKey.getBytes(StandardCharsets.UTF_8));
+        String column = COLUMN_PREFIX + String.format("%08x", crc.getValue()) + "_" + fieldKey.toLowerCase(Locale.ROOT);
+        return column.length() > MAX_COLUMN_NAME_LENGTH ? column.substring(0, MAX_COLUMN_NAME_LENGTH) : column;
+    }
+    
+    /**
+     * 启动时补建可搜索字段的生成列
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (isJsonStorage()) {
+            ensureSearchableColumns(productFieldRepository.findBySearchableTrue());
+        }
+    }
+    
+    /**
+     * JSON 存储模式下定时迁移 order_fields 中的历史订单，全部迁移后不再执行
+     */
+    @Scheduled(fixedDelayString = "${order-fields.migration-interval:60000}")
+    public void migrate() {
+        if (!isJsonStorage() || migrated || !migrating.compareAndSet(false, true)) {
+            return;
+        }
+        schemaMigrationExecutor.execute(() -> {
+            try {
+                int total = 0;
+                int count;
+                while ((count = migrateBatch()) > 0) {
+                    total += count;
+                }
+                migrated = true;
+                log.info("Migrated field values of {} orders to JSON column", total);
+            } catch (Exception e) {
+                log.error("Failed to migrate order field values", e);
+            } finally {
+                migrating.set(false);
+            }
+        });
+    }
+    
+    private void ensureColumn(String fieldKey) {
+        if (!isMysql()) {
+            log.debug("Generated columns are only created on MySQL, skipped field: {}", fieldKey);
+            return;
+        }
+        if (!COLUMN_SAFE_KEY.matcher(fieldKey).matches()) {
+            log.warn("Field key is not usable as a column name, skipped searchable column: {}", fieldKey);
+            return;
+        }
+        
+        String column = searchableColumnName(fieldKey);
+        if (provisionedColumns.contains(column)) {
+            return;
+        }
+        try {
+            if (!columnExists(column)) {
+                // 虚拟生成列不占存储，MySQL 8 可即时添加，索引在线创建
+                jdbcTemplate.execute("ALTER TABLE orders ADD COLUMN " + column + " VARCHAR(" + COLUMN_LENGTH + ") "
+                        + "GENERATED ALWAYS AS (LEFT(JSON_UNQUOTE(JSON_EXTRACT(field_values, '$.\"" + fieldKey + "\"')), "
+                        + COLUMN_LENGTH + ")) VIRTUAL, ADD INDEX idx_orders_" + column + " (" + column + ")");
+                log.info("Created searchable column {} for field: {}", column, fieldKey);
+            }
+            provisionedColumns.add(column);
+        } catch (Exception e) {
+            log.error("Failed to create searchable column for field: " + fieldKey, e);
+        }
+    }
+    
+    /**
+     * 字段已建立的生成列，不可搜索时返回 null
+     */
+    private String searchableColumn(String fieldKey) {
+        if (!isJsonStorage() || !isMysql() || !COLUMN_SAFE_KEY.matcher(fieldKey).matches()) {
+            return null;
+        }
+        String column = searchableColumnName(fieldKey);
+        if (provisionedColumns.contains(column)) {
+            return column;
+        }
+        if (columnExists(column)) {
+            provisionedColumns.add(column);
+            return column;
+        }
+        return null;
+    }
+    
+    private boolean columnExists(String column) {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.columns "
+                + "WHERE table_schema = DATABASE() AND table_name = 'orders' AND column_name = ?",
+                Integer.class, column);
+        return existing != null && existing > 0;
+    }
+    
+    private static UUID toUuid(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+    
+    private boolean isMysql() {
+        if (mysql == null) {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            mysql = "MySQL".equalsIgnoreCase(product);
+        }
+        return mysql;
+    }
+}
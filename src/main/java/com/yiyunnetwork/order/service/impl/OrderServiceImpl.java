@@ -1,13 +1,17 @@
 package com.yiyunnetwork.order.service.impl;
 
+import com.yiyunnetwork.order.dto.CursorPage;
 import com.yiyunnetwork.order.dto.order.OrderCreateDTO;
+import com.yiyunnetwork.order.dto.order.OrderReviewResultDTO;
+import com.yiyunnetwork.order.dto.order.OrderReviewResultDTO.Outcome;
 import com.yiyunnetwork.order.dto.order.OrderStatusUpdateDTO;
 import com.yiyunnetwork.order.exception.BusinessException;
+import com.yiyunnetwork.order.exception.FieldValidationException;
+import com.yiyunnetwork.order.exception.OrderConflictException;
 import com.yiyunnetwork.order.model.Order;
 import com.yiyunnetwork.order.model.OrderField;
 import com.yiyunnetwork.order.model.OrderLog;
 import com.yiyunnetwork.order.model.Product;
-import com.yiyunnetwork.order.model.ProductField;
 import com.yiyunnetwork.order.model.User;
 import com.yiyunnetwork.order.model.enums.OrderStatus;
 import com.yiyunnetwork.order.repository.OrderFieldRepository;
@@ -15,24 +19,46 @@ import com.yiyunnetwork.order.repository.OrderLogRepository;
 import com.yiyunnetwork.order.repository.OrderRepository;
 import com.yiyunnetwork.order.repository.ProductFieldRepository;
 import com.yiyunnetwork.order.repository.ProductRepository;
+import com.yiyunnetwork.order.repository.projection.OrderListRow;
+import com.yiyunnetwork.order.repository.projection.OrderVersion;
 import com.yiyunnetwork.order.service.EmailService;
+import com.yiyunnetwork.order.service.OrderEventService;
+import com.yiyunnetwork.order.service.OrderFieldStorageService;
 import com.yiyunnetwork.order.service.OrderService;
+import com.yiyunnetwork.order.service.ProductCacheService;
 import com.yiyunnetwork.order.service.UserService;
+import com.yiyunnetwork.order.util.OrderCursor;
+import com.yiyunnetwork.order.util.OrderStateMachine;
+import com.yiyunnetwork.order.util.OrderStateMachine.Effect;
+import com.yiyunnetwork.order.util.OrderStateMachine.Role;
 import com.yiyunnetwork.order.util.OrderUtils;
+import com.yiyunnetwork.order.util.ProductFormSchema;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.core.task.TaskExecutor;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.LongSupplier;
 
 @Service
 @RequiredArgsConstructor
@@ -40,16 +66,21 @@ import java.util.UUID;
 @Slf4j
 public class OrderServiceImpl implements OrderService {
 
+    // 游标分页每页最多返回的条数，查询时多取一条判断是否还有下一页
+    private static final int MAX_SCROLL_SIZE = 100;
+
     private final OrderRepository orderRepository;
     private final OrderFieldRepository orderFieldRepository;
     private final OrderLogRepository orderLogRepository;
     private final ProductRepository productRepository;
     private final ProductFieldRepository productFieldRepository;
+    private final ProductCacheService productCacheService;
     private final EmailService emailService;
+    private final OrderEventService orderEventService;
+    private final OrderFieldStorageService orderFieldStorageService;
     private final UserService userService;
-    @Qualifier("taskExecutor")
-    private final TaskExecutor taskExecutor;
     private final OrderUtils orderUtils;
+    private final EntityManager entityManager;
 
     @Override
     public Order createOrder(OrderCreateDTO orderCreateDTO) {
@@ -61,16 +92,12 @@ public class OrderServiceImpl implements OrderService {
             throw new BusinessException("该商品已下架");
         }
         
-        // 获取商品字段
-        List<ProductField> productFields = productFieldRepository.findByProductOrderByDisplayOrderAsc(product);
-        
-        // 检查必填字段
-        for (ProductField field : productFields) {
-            if (field.getRequired() && 
-                    (!orderCreateDTO.getFields().containsKey(field.getFieldKey()) || 
-                     orderCreateDTO.getFields().get(field.getFieldKey()).isBlank())) {
-                throw new BusinessException("字段 " + field.getName() + " 为必填项");
-            }
+        // 按预编译的表单结构一次校验全部字段，返回每个字段的错误；历史商品的无效规则被忽略，不拒绝订单
+        ProductFormSchema schema = productCacheService.getFormSchema(product, p -> ProductFormSchema.compileLenient(
+                p.getUpdateTime(), productFieldRepository.findByProductOrderByDisplayOrderAsc(p)));
+        Map<String, String> fieldErrors = schema.validate(orderCreateDTO.getFields());
+        if (!fieldErrors.isEmpty()) {
+            throw new FieldValidationException(fieldErrors);
         }
         
         // 如果提供了agentId，则查询对应的代理用户
@@ -106,24 +133,37 @@ public class OrderServiceImpl implements OrderService {
                 .logs(new ArrayList<>())
                 .build();
         
+        if (orderFieldStorageService.isJsonStorage()) {
+            // 字段值随订单一行写入
+            Map<String, String> fieldValues = new LinkedHashMap<>();
+            for (ProductFormSchema.CompiledField field : schema.getFields()) {
+                if (orderCreateDTO.getFields().containsKey(field.getKey())) {
+                    fieldValues.put(field.getKey(), orderCreateDTO.getFields().get(field.getKey()));
+                }
+            }
+            order.setFieldValues(fieldValues);
+        }
+        
         Order savedOrder = orderRepository.save(order);
         
         // 保存订单字段
-        List<OrderField> orderFields = new ArrayList<>();
-        for (ProductField field : productFields) {
-            if (orderCreateDTO.getFields().containsKey(field.getFieldKey())) {
-                OrderField orderField = OrderField.builder()
-                        .order(savedOrder)
-                        .fieldKey(field.getFieldKey())
-                        .fieldType(field.getFieldType())
-                        .fieldValue(orderCreateDTO.getFields().get(field.getFieldKey()))
-                        .build();
-                orderFields.add(orderField);
+        if (!orderFieldStorageService.isJsonStorage()) {
+            List<OrderField> orderFields = new ArrayList<>();
+            for (ProductFormSchema.CompiledField field : schema.getFields()) {
+                if (orderCreateDTO.getFields().containsKey(field.getKey())) {
+                    OrderField orderField = OrderField.builder()
+                            .order(savedOrder)
+                            .fieldKey(field.getKey())
+                            .fieldType(field.getType())
+                            .fieldValue(orderCreateDTO.getFields().get(field.getKey()))
+                            .build();
+                    orderFields.add(orderField);
+                }
             }
+            
+            orderFieldRepository.saveAll(orderFields);
         }
         
-        orderFieldRepository.saveAll(orderFields);
-        
         // 记录订单日志
         OrderLog orderLog = OrderLog.builder()
                 .order(savedOrder)
@@ -135,26 +175,14 @@ public class OrderServiceImpl implements OrderService {
                 .build();
         
         orderLogRepository.save(orderLog);
+        orderEventService.publish(orderLog);
         
-        // 异步发送邮件通知
-        final String customerEmail = savedOrder.getCustomerEmail();
-        final String orderNo = savedOrder.getOrderNo();
-        final String orderId = savedOrder.getId().toString();
-        
-        taskExecutor.execute(() -> {
-            try {
-                // 构建订单访问链接
-                String orderLink = orderUtils.generateOrderLink(savedOrder);
-                
-                emailService.sendOrderCreationNotification(
-                    customerEmail,
-                    orderNo,
-                    orderLink
-                );
-            } catch (Exception e) {
-                log.error("Failed to send order creation notification email for order: " + orderId, e);
-            }
-        });
+        // 写入邮件发件箱，与订单在同一事务中提交
+        emailService.sendOrderCreationNotification(
+                savedOrder.getCustomerEmail(),
+                savedOrder.getOrderNo(),
+                orderUtils.generateOrderLink(savedOrder)
+        );
         
         return savedOrder;
     }
@@ -166,6 +194,17 @@ public class OrderServiceImpl implements OrderService {
                 .orElseThrow(() -> new BusinessException("订单不存在"));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Order getOrderDetail(UUID id) {
+        if (orderFieldStorageService.isJsonStorage()) {
+            return withFields(orderRepository.findWithoutFieldsById(id)
+                    .orElseThrow(() -> new BusinessException("订单不存在")));
+        }
+        return orderRepository.findDetailById(id)
+                .orElseThrow(() -> new BusinessException("订单不存在"));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Order getOrderByOrderNo(String orderNo) {
@@ -176,10 +215,26 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional(readOnly = true)
     public Order getOrderByIdAndToken(UUID id, String token) {
+        if (orderFieldStorageService.isJsonStorage()) {
+            return withFields(orderRepository.findWithoutFieldsByIdAndAccessToken(id, token)
+                    .orElseThrow(() -> new BusinessException("订单不存在或访问令牌无效")));
+        }
         return orderRepository.findByIdAndAccessToken(id, token)
                 .orElseThrow(() -> new BusinessException("订单不存在或访问令牌无效"));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<OrderVersion> getOrderVersion(UUID id) {
+        return orderRepository.findVersionById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<OrderVersion> getOrderVersion(UUID id, String token) {
+        return orderRepository.findVersionByIdAndAccessToken(id, token);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Order> getOrdersByStatus(OrderStatus status) {
@@ -206,144 +261,75 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public Order updateOrderStatus(UUID id, OrderStatusUpdateDTO orderStatusUpdateDTO, User operator) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new BusinessException("订单不存在"));
-        
-        OrderStatus oldStatus = order.getStatus();
-        OrderStatus newStatus = orderStatusUpdateDTO.getStatus();
+        Order order = findOrder(id);
         
-        if (oldStatus == newStatus) {
+        if (order.getStatus() == orderStatusUpdateDTO.getStatus()) {
             return order;
         }
         
-        // 检查状态变更的合法性
-        checkStatusTransitionValidity(oldStatus, newStatus);
-        
-        order.setStatus(newStatus);
-        order.setRemark(orderStatusUpdateDTO.getRemark());
-        
-        // 根据不同的状态变更，设置代理或超管
-        if (newStatus == OrderStatus.PENDING_ADMIN_REVIEW && oldStatus == OrderStatus.PENDING_AGENT_REVIEW) {
-            order.setAgent(operator);
-        } else if ((newStatus == OrderStatus.IN_PROGRESS || newStatus == OrderStatus.REJECTED) 
-                && oldStatus == OrderStatus.PENDING_ADMIN_REVIEW) {
-            order.setAdmin(operator);
-        }
-        
-        // 记录日志
-        OrderLog orderLog = OrderLog.builder()
-                .order(order)
-                .operator(operator)
-                .operatorName(operator.getUsername())
-                .operatorEmail(operator.getEmail())
-                .fromStatus(oldStatus)
-                .toStatus(newStatus)
-                .remark(orderStatusUpdateDTO.getRemark())
-                .build();
-        
-        orderLogRepository.save(orderLog);
-        
-        Order updatedOrder = orderRepository.save(order);
-        
-        // 异步发送邮件通知，避免阻塞响应
-        final UUID orderId = updatedOrder.getId();
-        final String customerEmail = updatedOrder.getCustomerEmail();
-        final String orderNo = updatedOrder.getOrderNo();
-        final String statusName = newStatus.name();
-        final String remark = orderStatusUpdateDTO.getRemark();
-        
-        taskExecutor.execute(() -> {
-            try {
-                // 使用OrderUtils生成订单访问链接
-                String orderLink = orderUtils.generateOrderLink(updatedOrder);
-                
-                emailService.sendOrderStatusChangeNotification(
-                    customerEmail,
-                    orderNo,
-                    statusName,
-                    remark,
-                    orderLink
-                );
-            } catch (Exception e) {
-                log.error("Failed to send order status change notification email for order: " + orderId, e);
-            }
-        });
-        
-        return updatedOrder;
+        return changeStatus(order, null, orderStatusUpdateDTO.getStatus(), roleOf(operator), operator,
+                orderStatusUpdateDTO.getRemark());
     }
 
     @Override
     public Order agentReviewOrder(UUID id, boolean approved, User agent, String remark) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new BusinessException("订单不存在"));
-        
-        if (order.getStatus() != OrderStatus.PENDING_AGENT_REVIEW) {
-            throw new BusinessException("只能审核待代理审核状态的订单");
-        }
+        Order order = findOrder(id);
         
-        OrderStatusUpdateDTO statusUpdate = new OrderStatusUpdateDTO();
         if (approved) {
-            statusUpdate.setStatus(OrderStatus.PENDING_ADMIN_REVIEW);
-            statusUpdate.setRemark(remark != null ? remark : "代理审核通过");
-        } else {
-            statusUpdate.setStatus(OrderStatus.REJECTED);
-            statusUpdate.setRemark(remark != null ? remark : "代理审核不通过");
+            return changeStatus(order, OrderStatus.PENDING_AGENT_REVIEW, OrderStatus.PENDING_ADMIN_REVIEW,
+                    Role.AGENT, agent, remark != null ? remark : "代理审核通过");
         }
-        
-        return updateOrderStatus(id, statusUpdate, agent);
+        return changeStatus(order, OrderStatus.PENDING_AGENT_REVIEW, OrderStatus.REJECTED,
+                Role.AGENT, agent, remark != null ? remark : "代理审核不通过");
     }
 
     @Override
     public Order adminReviewOrder(UUID id, boolean approved, User admin, String remark) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new BusinessException("订单不存在"));
+        Order order = findOrder(id);
         
-        if (order.getStatus() != OrderStatus.PENDING_ADMIN_REVIEW) {
-            throw new BusinessException("只能审核待超管审核状态的订单");
+        if (approved) {
+            return changeStatus(order, OrderStatus.PENDING_ADMIN_REVIEW, OrderStatus.IN_PROGRESS,
+                    Role.ADMIN, admin, remark != null ? remark : "超管审核通过");
         }
-        
-        OrderStatusUpdateDTO statusUpdate = new OrderStatusUpdateDTO();
+        return changeStatus(order, OrderStatus.PENDING_ADMIN_REVIEW, OrderStatus.REJECTED,
+                Role.ADMIN, admin, remark != null ? remark : "超管审核不通过");
+    }
+
+    @Override
+    public List<OrderReviewResultDTO> agentReviewOrders(Collection<UUID> ids, boolean approved, User agent,
+                                                        String remark) {
+        // 代理只能审核未分配或分配给自己的订单
+        Predicate<Order> permitted = order -> order.getAgent() == null
+                || order.getAgent().getId().equals(agent.getId());
         if (approved) {
-            statusUpdate.setStatus(OrderStatus.IN_PROGRESS);
-            statusUpdate.setRemark(remark != null ? remark : "超管审核通过");
-        } else {
-            statusUpdate.setStatus(OrderStatus.REJECTED);
-            statusUpdate.setRemark(remark != null ? remark : "超管审核不通过");
+            return bulkChangeStatus(ids, OrderStatus.PENDING_AGENT_REVIEW, OrderStatus.PENDING_ADMIN_REVIEW,
+                    Role.AGENT, agent, remark != null ? remark : "代理审核通过", permitted);
         }
-        
-        return updateOrderStatus(id, statusUpdate, admin);
+        return bulkChangeStatus(ids, OrderStatus.PENDING_AGENT_REVIEW, OrderStatus.REJECTED,
+                Role.AGENT, agent, remark != null ? remark : "代理审核不通过", permitted);
     }
 
     @Override
-    public Order markOrderInProgress(UUID id, User admin, String remark) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new BusinessException("订单不存在"));
-        
-        if (order.getStatus() != OrderStatus.PENDING_ADMIN_REVIEW) {
-            throw new BusinessException("只能将待超管审核状态的订单标记为执行中");
+    public List<OrderReviewResultDTO> adminReviewOrders(Collection<UUID> ids, boolean approved, User admin,
+                                                        String remark) {
+        if (approved) {
+            return bulkChangeStatus(ids, OrderStatus.PENDING_ADMIN_REVIEW, OrderStatus.IN_PROGRESS,
+                    Role.ADMIN, admin, remark != null ? remark : "超管审核通过", order -> true);
         }
-        
-        OrderStatusUpdateDTO statusUpdate = new OrderStatusUpdateDTO();
-        statusUpdate.setStatus(OrderStatus.IN_PROGRESS);
-        statusUpdate.setRemark(remark != null ? remark : "开始执行订单");
-        
-        return updateOrderStatus(id, statusUpdate, admin);
+        return bulkChangeStatus(ids, OrderStatus.PENDING_ADMIN_REVIEW, OrderStatus.REJECTED,
+                Role.ADMIN, admin, remark != null ? remark : "超管审核不通过", order -> true);
+    }
+
+    @Override
+    public Order markOrderInProgress(UUID id, User admin, String remark) {
+        return changeStatus(findOrder(id), OrderStatus.PENDING_ADMIN_REVIEW, OrderStatus.IN_PROGRESS,
+                Role.ADMIN, admin, remark != null ? remark : "开始执行订单");
     }
 
     @Override
     public Order completeOrder(UUID id, User admin, String remark) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new BusinessException("订单不存在"));
-        
-        if (order.getStatus() != OrderStatus.IN_PROGRESS) {
-            throw new BusinessException("只能将执行中状态的订单标记为已完成");
-        }
-        
-        OrderStatusUpdateDTO statusUpdate = new OrderStatusUpdateDTO();
-        statusUpdate.setStatus(OrderStatus.COMPLETED);
-        statusUpdate.setRemark(remark != null ? remark : "订单完成");
-        
-        return updateOrderStatus(id, statusUpdate, admin);
+        return changeStatus(findOrder(id), OrderStatus.IN_PROGRESS, OrderStatus.COMPLETED,
+                Role.ADMIN, admin, remark != null ? remark : "订单完成");
     }
 
     @Override
@@ -351,52 +337,8 @@ public class OrderServiceImpl implements OrderService {
         Order order = orderRepository.findByIdAndAccessToken(id, token)
                 .orElseThrow(() -> new BusinessException("订单不存在或访问令牌无效"));
         
-        if (order.getStatus() != OrderStatus.PENDING_AGENT_REVIEW) {
-            throw new BusinessException("只能取消待代理审核状态的订单");
-        }
-        
-        OrderStatus oldStatus = order.getStatus();
-        order.setStatus(OrderStatus.CANCELLED);
-        order.setRemark(remark);
-        
-        // 记录日志
-        OrderLog orderLog = OrderLog.builder()
-                .order(order)
-                .operatorName("客户")
-                .operatorEmail(order.getCustomerEmail())
-                .fromStatus(oldStatus)
-                .toStatus(OrderStatus.CANCELLED)
-                .remark(remark != null ? remark : "客户取消订单")
-                .build();
-        
-        orderLogRepository.save(orderLog);
-        
-        Order updatedOrder = orderRepository.save(order);
-        
-        // 异步发送邮件通知
-        final UUID orderId = updatedOrder.getId();
-        final String customerEmail = updatedOrder.getCustomerEmail();
-        final String orderNo = updatedOrder.getOrderNo();
-        final String remarkText = remark;
-        
-        taskExecutor.execute(() -> {
-            try {
-                // 使用OrderUtils生成订单访问链接
-                String orderLink = orderUtils.generateOrderLink(updatedOrder);
-                
-                emailService.sendOrderStatusChangeNotification(
-                    customerEmail,
-                    orderNo,
-                    OrderStatus.CANCELLED.name(),
-                    remarkText,
-                    orderLink
-                );
-            } catch (Exception e) {
-                log.error("Failed to send order cancellation notification email for order: " + orderId, e);
-            }
-        });
-        
-        return updatedOrder;
+        return changeStatus(order, OrderStatus.PENDING_AGENT_REVIEW, OrderStatus.CANCELLED,
+                Role.CUSTOMER, null, remark != null ? remark : "客户取消订单");
     }
 
     @Override
@@ -414,6 +356,10 @@ public class OrderServiceImpl implements OrderService {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new BusinessException("订单不存在"));
         
+        if (order.getFieldValues() != null) {
+            return order.getFieldValues();
+        }
+        
         List<OrderField> orderFields = orderFieldRepository.findByOrder(order);
         
         Map<String, String> fieldMap = new HashMap<>();
@@ -425,34 +371,184 @@ public class OrderServiceImpl implements OrderService {
     }
     
     /**
-     * 检查订单状态变更的合法性
+     * JSON 列尚未迁移的订单在事务内加载 order_fields，供响应转换使用
      */
-    private void checkStatusTransitionValidity(OrderStatus oldStatus, OrderStatus newStatus) {
-        if (oldStatus == OrderStatus.COMPLETED || oldStatus == OrderStatus.CANCELLED) {
-            throw new BusinessException("已完成或已取消的订单不能更改状态");
+    private Order withFields(Order order) {
+        if (order.getFieldValues() == null) {
+            Hibernate.initialize(order.getFields());
+        }
+        return order;
+    }
+    
+    private Order findOrder(UUID id) {
+        return orderRepository.findById(id)
+                .orElseThrow(() -> new BusinessException("订单不存在"));
+    }
+    
+    /**
+     * 订单状态变更引擎：按状态机校验变更和角色，以 id + 原状态 + 版本号为条件更新（不加行锁），
+     * 应用变更附带的操作，记录日志、推送事件并通知客户
+     *
+     * @param expected 操作要求的原状态，为null时只按状态机校验
+     * @param operator 操作人，客户操作时为null
+     * @throws OrderConflictException 订单已被其他操作修改
+     */
+    private Order changeStatus(Order order, OrderStatus expected, OrderStatus newStatus, Role role,
+                               User operator, String remark) {
+        OrderStatus oldStatus = order.getStatus();
+        if (expected != null && oldStatus != expected) {
+            throw new BusinessException("只能处理" + OrderStateMachine.label(expected) + "状态的订单");
+        }
+        OrderStateMachine.Edge edge = OrderStateMachine.require(oldStatus, newStatus, role);
+        
+        User agent = edge.has(Effect.ASSIGN_AGENT) ? operator : order.getAgent();
+        User admin = edge.has(Effect.ASSIGN_ADMIN) ? operator : order.getAdmin();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime completeTime = edge.has(Effect.SET_COMPLETE_TIME) && order.getCompleteTime() == null
+                ? now : order.getCompleteTime();
+        
+        int updated = orderRepository.transitionStatus(order.getId(), oldStatus, order.getVersion(),
+                newStatus, remark, agent, admin, now, completeTime);
+        if (updated == 0) {
+            throw new OrderConflictException("订单已被其他操作修改，请刷新后重试");
         }
         
-        switch (oldStatus) {
-            case PENDING_AGENT_REVIEW:
-                if (newStatus != OrderStatus.PENDING_ADMIN_REVIEW && newStatus != OrderStatus.REJECTED && newStatus != OrderStatus.CANCELLED) {
-                    throw new BusinessException("待代理审核的订单只能变更为待超管审核、已退回或已取消状态");
-                }
-                break;
-            case PENDING_ADMIN_REVIEW:
-                if (newStatus != OrderStatus.IN_PROGRESS && newStatus != OrderStatus.REJECTED && newStatus != OrderStatus.PENDING_AGENT_REVIEW) {
-                    throw new BusinessException("待超管审核的订单只能变更为执行中、已退回或退回到待代理审核状态");
-                }
-                break;
-            case IN_PROGRESS:
-                if (newStatus != OrderStatus.COMPLETED) {
-                    throw new BusinessException("执行中的订单只能变更为已完成状态");
-                }
-                break;
-            case REJECTED:
-                throw new BusinessException("已退回的订单不能更改状态");
-            default:
-                break;
+        syncTransitioned(order, newStatus, remark, agent, admin, now, completeTime);
+        
+        // 记录日志
+        OrderLog orderLog = buildLog(order, oldStatus, newStatus, operator, remark);
+        orderLogRepository.save(orderLog);
+        orderEventService.publish(orderLog);
+        
+        // 写入邮件发件箱，与状态变更在同一事务中提交
+        emailService.sendOrderStatusChangeNotification(
+                order.getCustomerEmail(),
+                order.getOrderNo(),
+                newStatus.name(),
+                remark,
+                orderUtils.generateOrderLink(order)
+        );
+        
+        return order;
+    }
+    
+    /**
+     * 批量状态变更，用于审核：一次加载并锁定全部订单，同一版本号的订单用一条条件更新语句写入，
+     * 日志与通知邮件各一次批量写入；不满足条件的订单单独返回原因，不影响其他订单。
+     * 订单在检查前已锁定，检查通过的订单即为条件更新写入的订单，并发修改不会被误认为本次写入
+     *
+     * @param permitted 操作人是否有权处理该订单
+     */
+    private List<OrderReviewResultDTO> bulkChangeStatus(Collection<UUID> ids, OrderStatus expected,
+                                                        OrderStatus newStatus, Role role, User operator,
+                                                        String remark, Predicate<Order> permitted) {
+        OrderStateMachine.Edge edge = OrderStateMachine.require(expected, newStatus, role);
+        
+        Set<UUID> uniqueIds = new LinkedHashSet<>(ids);
+        Map<UUID, Order> orders = new HashMap<>();
+        for (Order order : orderRepository.findAllByIdForUpdate(uniqueIds)) {
+            orders.put(order.getId(), order);
+        }
+        
+        Map<UUID, OrderReviewResultDTO> results = new LinkedHashMap<>();
+        Map<Long, List<Order>> byVersion = new HashMap<>();
+        for (UUID id : uniqueIds) {
+            Order order = orders.get(id);
+            if (order == null) {
+                results.put(id, OrderReviewResultDTO.failed(id, Outcome.NOT_FOUND, "订单不存在"));
+            } else if (!permitted.test(order)) {
+                results.put(id, OrderReviewResultDTO.failed(id, Outcome.FORBIDDEN, "您没有权限审核该订单"));
+            } else if (order.getStatus() != expected) {
+                results.put(id, OrderReviewResultDTO.failed(id, Outcome.INVALID_STATUS,
+                        "只能处理" + OrderStateMachine.label(expected) + "状态的订单"));
+            } else {
+                // 占位，保持结果顺序与请求一致
+                results.put(id, null);
+                byVersion.computeIfAbsent(order.getVersion(), v -> new ArrayList<>()).add(order);
+            }
         }
+        
+        // 与数据库精度一致，同步到已加载订单的更新时间与数据库中相同
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<Order> updated = new ArrayList<>();
+        byVersion.forEach((version, group) -> {
+            List<UUID> groupIds = group.stream().map(Order::getId).toList();
+            int count;
+            if (edge.has(Effect.ASSIGN_AGENT)) {
+                count = orderRepository.bulkTransitionStatusAssigningAgent(
+                        groupIds, expected, version, newStatus, remark, now, operator);
+            } else if (edge.has(Effect.ASSIGN_ADMIN)) {
+                count = orderRepository.bulkTransitionStatusAssigningAdmin(
+                        groupIds, expected, version, newStatus, remark, now, operator);
+            } else {
+                count = orderRepository.bulkTransitionStatus(groupIds, expected, version, newStatus, remark, now);
+            }
+            
+            if (count != group.size()) {
+                // 订单已锁定，条件更新应全部命中；不一致时无法确定写入了哪些订单，回滚整个批次
+                throw new IllegalStateException(
+                        "批量审核更新了 " + count + " 个订单，锁定的订单为 " + group.size() + " 个");
+            }
+            updated.addAll(group);
+        });
+        
+        List<OrderLog> logs = new ArrayList<>(updated.size());
+        List<EmailService.StatusChangeMail> mails = new ArrayList<>(updated.size());
+        for (Order order : updated) {
+            User agent = edge.has(Effect.ASSIGN_AGENT) ? operator : order.getAgent();
+            User admin = edge.has(Effect.ASSIGN_ADMIN) ? operator : order.getAdmin();
+            syncTransitioned(order, newStatus, remark, agent, admin, now, order.getCompleteTime());
+            
+            logs.add(buildLog(order, expected, newStatus, operator, remark));
+            mails.add(new EmailService.StatusChangeMail(
+                    order.getCustomerEmail(), order.getOrderNo(), orderUtils.generateOrderLink(order)));
+            results.put(order.getId(), OrderReviewResultDTO.updated(order.getId(), newStatus));
+        }
+        
+        orderLogRepository.saveAll(logs);
+        logs.forEach(orderEventService::publish);
+        emailService.sendOrderStatusChangeNotifications(mails, newStatus.name(), remark);
+        
+        return new ArrayList<>(results.values());
+    }
+    
+    /**
+     * 条件更新成功后同步已加载的订单，并将其设为只读，避免提交时按脏检查再更新一次
+     */
+    private void syncTransitioned(Order order, OrderStatus newStatus, String remark, User agent, User admin,
+                                  LocalDateTime updateTime, LocalDateTime completeTime) {
+        entityManager.unwrap(Session.class).setReadOnly(order, true);
+        order.setStatus(newStatus);
+        order.setRemark(remark);
+        order.setAgent(agent);
+        order.setAdmin(admin);
+        order.setUpdateTime(updateTime);
+        order.setCompleteTime(completeTime);
+        order.setVersion(order.getVersion() + 1);
+    }
+    
+    /**
+     * @param operator 操作人，客户操作时为null
+     */
+    private OrderLog buildLog(Order order, OrderStatus oldStatus, OrderStatus newStatus, User operator, String remark) {
+        return OrderLog.builder()
+                .order(order)
+                .operator(operator)
+                .operatorName(operator != null ? operator.getUsername() : "客户")
+                .operatorEmail(operator != null ? operator.getEmail() : order.getCustomerEmail())
+                .fromStatus(oldStatus)
+                .toStatus(newStatus)
+                .remark(remark)
+                .build();
+    }
+    
+    /**
+     * 后台用户按最高角色执行变更
+     */
+    private Role roleOf(User operator) {
+        boolean isAdmin = operator.getRoles().stream()
+                .anyMatch(role -> role.getName().equals("ROLE_ADMIN"));
+        return isAdmin ? Role.ADMIN : Role.AGENT;
     }
 
     @Override
@@ -478,4 +574,106 @@ public class OrderServiceImpl implements OrderService {
     public Page<Order> getOrdersByAdminAndStatus(User admin, OrderStatus status, Pageable pageable) {
         return orderRepository.findByAdminAndStatus(admin, status, pageable);
     }
-} 
\ No newline at end of file
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<OrderListRow> getOrderRows(Pageable pageable) {
+        return orderRepository.findListRows(pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<OrderListRow> getOrderRowsByStatus(OrderStatus status, Pageable pageable) {
+        return orderRepository.findListRowsByStatus(status, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<OrderListRow> getOrderRowsByAgent(User agent, Pageable pageable) {
+        return orderRepository.findListRowsByAgent(agent, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<OrderListRow> getOrderRowsByAgentAndStatus(User agent, OrderStatus status, Pageable pageable) {
+        return orderRepository.findListRowsByAgentAndStatus(agent, status, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<OrderListRow> searchOrderRowsByField(String fieldKey, String value, User agent, Pageable pageable) {
+        Page<UUID> ids = orderFieldStorageService.findOrderIdsByField(fieldKey, value, agent, pageable);
+        // IN 查询不保证顺序，按ID分页结果的顺序排列
+        Map<UUID, OrderListRow> rows = new HashMap<>();
+        if (ids.hasContent()) {
+            for (OrderListRow row : orderRepository.findListRowsByIdIn(ids.getContent())) {
+                rows.put(row.getId(), row);
+            }
+        }
+        return ids.map(rows::get);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<OrderListRow> scrollOrderRows(User agent, OrderStatus status, String cursor,
+                                                    int size, boolean withTotal) {
+        checkScrollSize(size);
+        OrderCursor position = OrderCursor.decode(cursor);
+        // 多取一条用于判断是否还有下一页
+        Pageable limit = PageRequest.of(0, size + 1);
+        
+        List<OrderListRow> rows;
+        LongSupplier total;
+        if (agent == null && status == null) {
+            rows = orderRepository.scrollListRows(position.createTime(), position.id(), limit);
+            total = orderRepository::count;
+        } else if (agent == null) {
+            rows = orderRepository.scrollListRowsByStatus(status, position.createTime(), position.id(), limit);
+            total = () -> orderRepository.countByStatus(status);
+        } else if (status == null) {
+            rows = orderRepository.scrollListRowsByAgent(agent, position.createTime(), position.id(), limit);
+            total = () -> orderRepository.countByAgent(agent);
+        } else {
+            rows = orderRepository.scrollListRowsByAgentAndStatus(
+                    agent, status, position.createTime(), position.id(), limit);
+            total = () -> orderRepository.countByAgentAndStatus(agent, status);
+        }
+        
+        return toCursorPage(rows, size, row -> new OrderCursor(row.getCreateTime(), row.getId()),
+                withTotal ? total : null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Order> scrollOrdersByCustomerEmail(String email, String cursor, int size, boolean withTotal) {
+        checkScrollSize(size);
+        OrderCursor position = OrderCursor.decode(cursor);
+        List<Order> orders = orderRepository.scrollByCustomerEmail(
+                email, position.createTime(), position.id(), PageRequest.of(0, size + 1));
+        
+        return toCursorPage(orders, size, order -> new OrderCursor(order.getCreateTime(), order.getId()),
+                withTotal ? () -> orderRepository.countByCustomerEmail(email) : null);
+    }
+    
+    private void checkScrollSize(int size) {
+        if (size < 1) {
+            throw new BusinessException("每页大小必须大于0");
+        }
+        if (size > MAX_SCROLL_SIZE) {
+            throw new BusinessException("每页大小不能超过" + MAX_SCROLL_SIZE);
+        }
+    }
+    
+    /**
+     * 将多取一条的查询结果组装为游标分页结果
+     */
+    private <T> CursorPage<T> toCursorPage(List<T> rows, int size, Function<T, OrderCursor> cursorOf,
+                                           LongSupplier total) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(content.get(content.size() - 1)).encode() : null;
+        Long totalElements = total != null ? total.getAsLong() : null;
+        
+        return new CursorPage<>(content, nextCursor, hasNext, totalElements);
+    }
+}
\ No newline at end of file
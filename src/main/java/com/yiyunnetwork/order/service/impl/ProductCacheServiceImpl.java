@@ -0,0 +1,143 @@
+package com.yiyunnetwork.order.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yiyunnetwork.order.model.Product;
+import com.yiyunnetwork.order.service.ProductCacheService;
+import com.yiyunnetwork.order.util.ProductFormSchema;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCacheServiceImpl implements ProductCacheService, MessageListener {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    
+    @Value("${product-cache.max-size:500}")
+    private int maxSize; // 最多缓存的商品数
+    
+    @Value("${product-cache.max-pages:100}")
+    private int maxPages; // 最多缓存的分页结果数
+    
+    @Value("${product-cache.ttl:600}")
+    private int ttl; // 缓存有效期，单位秒，防止失效通知丢失时长期读到旧数据
+    
+    // Redis 失效通知频道
+    private static final String INVALIDATION_CHANNEL = "cache:invalidate:product";
+    // 启用商品列表只有一个缓存项
+    private static final String ENABLED_KEY = "enabled";
+    
+    private Cache<Long, Product> products;
+    private Cache<String, List<Product>> enabledProducts;
+    private Cache<Pageable, Page<Product>> enabledPages;
+    private Cache<Long, ProductFormSchema> formSchemas;
+
+    @PostConstruct
+    public void init() {
+        products = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttl))
+                .build();
+        enabledProducts = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(Duration.ofSeconds(ttl))
+                .build();
+        enabledPages = Caffeine.newBuilder()
+                .maximumSize(maxPages)
+                .expireAfterWrite(Duration.ofSeconds(ttl))
+                .build();
+        formSchemas = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    @Override
+    public Product getProduct(Long id, Function<Long, Product> loader) {
+        return products.get(id, loader);
+    }
+
+    @Override
+    public List<Product> getEnabledProducts(Supplier<List<Product>> loader) {
+        return enabledProducts.get(ENABLED_KEY, key -> loader.get());
+    }
+
+    @Override
+    public Page<Product> getEnabledProducts(Pageable pageable, Function<Pageable, Page<Product>> loader) {
+        return enabledPages.get(pageable, loader);
+    }
+
+    @Override
+    public ProductFormSchema getFormSchema(Product product, Function<Product, ProductFormSchema> compiler) {
+        ProductFormSchema schema = formSchemas.get(product.getId(), id -> compiler.apply(product));
+        if (!Objects.equals(schema.getVersion(), product.getUpdateTime())) {
+            // 商品已更新而失效通知尚未到达，按新版本重新编译
+            schema = compiler.apply(product);
+            formSchemas.put(product.getId(), schema);
+        }
+        return schema;
+    }
+
+    @Override
+    public void evict(Long productId) {
+        invalidate(productId);
+        
+        // 事务提交前其他请求仍可能读到旧数据并重新写入缓存，提交后再失效一次并通知其他节点
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(productId);
+                    publishInvalidation(productId);
+                }
+            });
+        } else {
+            publishInvalidation(productId);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Long productId = Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8));
+        invalidate(productId);
+        log.debug("Product cache invalidated by remote node: {}", productId);
+    }
+    
+    private void invalidate(Long productId) {
+        products.invalidate(productId);
+        formSchemas.invalidate(productId);
+        // 商品的启用状态、名称、价格都会出现在列表中，列表整体失效
+        enabledProducts.invalidateAll();
+        enabledPages.invalidateAll();
+    }
+    
+    private void publishInvalidation(Long productId) {
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, productId.toString());
+        } catch (Exception e) {
+            log.error("Failed to publish product cache invalidation for product: " + productId, e);
+        }
+    }
+}
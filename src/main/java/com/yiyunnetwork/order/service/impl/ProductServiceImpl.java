@@ -7,15 +7,25 @@ import com.yiyunnetwork.order.model.Product;
 import com.yiyunnetwork.order.model.ProductField;
 import com.yiyunnetwork.order.repository.ProductFieldRepository;
 import com.yiyunnetwork.order.repository.ProductRepository;
+import com.yiyunnetwork.order.service.OrderFieldStorageService;
+import com.yiyunnetwork.order.service.ProductCacheService;
 import com.yiyunnetwork.order.service.ProductService;
+import com.yiyunnetwork.order.util.ProductFormSchema;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,6 +35,9 @@ public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
     private final ProductFieldRepository productFieldRepository;
+    private final ProductCacheService productCacheService;
+    private final OrderFieldStorageService orderFieldStorageService;
+    private final PlatformTransactionManager transactionManager;
 
     @Override
     public Product createProduct(ProductDTO productDTO) {
@@ -45,9 +58,13 @@ public class ProductServiceImpl implements ProductService {
                     .map(fieldDTO -> mapToProductField(fieldDTO, savedProduct))
                     .collect(Collectors.toList());
             
+            // 提前编译，校验规则或选项配置无效时拒绝保存
+            ProductFormSchema.compile(null, fields);
             productFieldRepository.saveAll(fields);
+            orderFieldStorageService.ensureSearchableColumns(fields);
         }
         
+        productCacheService.evict(savedProduct.getId());
         return savedProduct;
     }
 
@@ -61,6 +78,8 @@ public class ProductServiceImpl implements ProductService {
         product.setPrice(productDTO.getPrice());
         product.setEnabled(productDTO.getEnabled());
         product.setImageUrl(productDTO.getImageUrl());
+        // 只修改字段时商品本身没有变化，显式更新时间作为新版本（表单结构缓存按版本重新编译）
+        product.setUpdateTime(LocalDateTime.now());
         
         // 先删除所有原有字段
         productFieldRepository.deleteByProduct(product);
@@ -71,17 +90,27 @@ public class ProductServiceImpl implements ProductService {
                     .map(fieldDTO -> mapToProductField(fieldDTO, product))
                     .collect(Collectors.toList());
             
+            // 提前编译，校验规则或选项配置无效时拒绝保存
+            ProductFormSchema.compile(null, fields);
             productFieldRepository.saveAll(fields);
+            orderFieldStorageService.ensureSearchableColumns(fields);
         }
         
+        productCacheService.evict(id);
         return productRepository.save(product);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Product getProduct(Long id) {
-        return productRepository.findById(id)
-                .orElseThrow(() -> new BusinessException("商品不存在"));
+        // 缓存命中时不开启事务、不占用连接，只有加载时才在只读事务中查询
+        return productCacheService.getProduct(id, productId -> inReadOnlyTransaction(() -> {
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new BusinessException("商品不存在"));
+            // 缓存的商品会脱离会话使用，字段需在事务内初始化
+            Hibernate.initialize(product.getFields());
+            return product;
+        }));
     }
 
     @Override
@@ -94,18 +123,28 @@ public class ProductServiceImpl implements ProductService {
         
         // 再删除商品
         productRepository.delete(product);
+        productCacheService.evict(id);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<Product> getEnabledProducts() {
-        return productRepository.findByEnabled(true);
+        return productCacheService.getEnabledProducts(() -> inReadOnlyTransaction(() -> {
+            List<Product> products = productRepository.findByEnabled(true);
+            products.forEach(product -> Hibernate.initialize(product.getFields()));
+            // 缓存的列表在调用方之间共享，不可修改
+            return List.copyOf(products);
+        }));
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Page<Product> getEnabledProducts(Pageable pageable) {
-        return productRepository.findByEnabled(true, pageable);
+        return productCacheService.getEnabledProducts(pageable, page -> inReadOnlyTransaction(() -> {
+            Page<Product> products = productRepository.findByEnabled(true, page);
+            products.forEach(product -> Hibernate.initialize(product.getFields()));
+            return new PageImpl<>(List.copyOf(products.getContent()), page, products.getTotalElements());
+        }));
     }
 
     @Override
@@ -126,9 +165,19 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> new BusinessException("商品不存在"));
         
         product.setEnabled(enabled);
+        productCacheService.evict(id);
         return productRepository.save(product);
     }
     
+    /**
+     * 在只读事务中执行缓存加载
+     */
+    private <T> T inReadOnlyTransaction(Supplier<T> loader) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template.execute(status -> loader.get());
+    }
+    
     /**
      * 将DTO转换为实体
      */
@@ -144,6 +193,7 @@ public class ProductServiceImpl implements ProductService {
                 .placeholder(dto.getPlaceholder())
                 .options(dto.getOptions())
                 .displayOrder(dto.getDisplayOrder())
+                .searchable(dto.getSearchable())
                 .build();
     }
 } 
\ No newline at end of file
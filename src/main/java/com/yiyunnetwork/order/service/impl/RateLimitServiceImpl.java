@@ -0,0 +1,237 @@
+package com.yiyunnetwork.order.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.yiyunnetwork.order.config.RateLimitConfig;
+import com.yiyunnetwork.order.service.RateLimitService;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 集群模式使用 redis/token_bucket.lua，要求 Redis 5 及以上版本：脚本先读取服务器时间再写入，
+ * 依赖 Redis 5 起默认的脚本效果复制，更早的版本会拒绝执行
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitServiceImpl implements RateLimitService {
+
+    private final RateLimitConfig rateLimitConfig;
+    @Qualifier("verificationCodeBuckets")
+    private final Map<String, Bucket> verificationCodeBuckets;
+    @Qualifier("orderBuckets")
+    private final Map<String, Bucket> orderBuckets;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Value("${rate-limit.order.mode:${rate-limit.mode:local}}")
+    private String orderMode; // 订单创建限流模式：local 本节点，redis 集群
+
+    @Value("${rate-limit.order.lease:3}")
+    private int orderLease; // 集群模式下每次向 Redis 租用的订单创建令牌数
+
+    @Value("${rate-limit.verification-code.mode:${rate-limit.mode:local}}")
+    private String verificationCodeMode; // 验证码请求限流模式：local 本节点，redis 集群
+
+    @Value("${rate-limit.verification-code.lease:2}")
+    private int verificationCodeLease; // 集群模式下每次向 Redis 租用的验证码令牌数
+
+    @Value("${rate-limit.lease-ttl:1000}")
+    private long leaseTtl; // 租用令牌的本地有效期，到期未用完的令牌归还 Redis，单位毫秒
+
+    @Value("${rate-limit.redis-retry-interval:5000}")
+    private long redisRetryInterval; // Redis 不可用时退回本节点限流，每隔该时间试探一次是否恢复，单位毫秒
+
+    private static final String KEY_PREFIX = "rate-limit:";
+
+    private final RedisScript<List> tokenBucketScript =
+            RedisScript.of(new ClassPathResource("redis/token_bucket.lua"), List.class);
+
+    // 本节点租用的令牌，同时缓存 Redis 的拒绝结果，在重试时间前不再访问 Redis
+    private Cache<String, Lease> leases;
+
+    // Redis 不可用时下一次试探的时间（System.currentTimeMillis），0 表示可用
+    private final AtomicLong redisRetryAt = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        leases = Caffeine.newBuilder()
+                .maximumSize(rateLimitConfig.getMaxKeys())
+                .expireAfter(new Expiry<String, Lease>() {
+                    @Override
+                    public long expireAfterCreate(String key, Lease lease, long currentTime) {
+                        return lease.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Lease lease, long currentTime, long currentDuration) {
+                        return lease.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Lease lease, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                // 到期及时淘汰，未用完的令牌尽快归还
+                .scheduler(Scheduler.systemScheduler())
+                .removalListener((String key, Lease lease, RemovalCause cause) -> {
+                    if (key != null && lease != null) {
+                        returnUnused(key, lease);
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public Decision tryConsume(Route route, String key) {
+        if (isDistributed(route) && isRedisAvailable()) {
+            try {
+                Decision decision = tryConsumeDistributed(route, key);
+                if (redisRetryAt.get() != 0 && redisRetryAt.getAndSet(0) != 0) {
+                    log.info("Redis rate limit recovered");
+                }
+                return decision;
+            } catch (Exception e) {
+                // 只在首次失败时告警，断开期间的试探失败不再重复输出
+                if (redisRetryAt.getAndSet(System.currentTimeMillis() + redisRetryInterval) == 0) {
+                    log.warn("Redis rate limit unavailable, falling back to local buckets for {} ms: {}",
+                            redisRetryInterval, e.getMessage());
+                }
+            }
+        }
+        return tryConsumeLocal(route, key);
+    }
+
+    /**
+     * Redis 断开期间不再逐个请求访问 Redis，每个重试间隔只放行一个请求试探
+     */
+    private boolean isRedisAvailable() {
+        long retryAt = redisRetryAt.get();
+        if (retryAt == 0) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        return now >= retryAt && redisRetryAt.compareAndSet(retryAt, now + redisRetryInterval);
+    }
+
+    private Decision tryConsumeLocal(Route route, String key) {
+        Bucket bucket = route == Route.ORDER
+                ? rateLimitConfig.getOrderBucket(key, orderBuckets)
+                : rateLimitConfig.getVerificationCodeBucket(key, verificationCodeBuckets);
+        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
+        return probe.isConsumed()
+                ? Decision.ALLOWED
+                : Decision.denied(TimeUnit.NANOSECONDS.toMillis(probe.getNanosToWaitForRefill()));
+    }
+
+    private Decision tryConsumeDistributed(Route route, String key) {
+        String leaseKey = route.getKey() + ":" + key;
+        Lease lease = leases.getIfPresent(leaseKey);
+        if (lease != null) {
+            if (lease.denied) {
+                long waitNanos = lease.deniedUntil - System.nanoTime();
+                if (waitNanos > 0) {
+                    return Decision.denied(TimeUnit.NANOSECONDS.toMillis(waitNanos));
+                }
+            } else if (lease.remaining.getAndDecrement() > 0) {
+                return Decision.ALLOWED;
+            }
+        }
+
+        // 本地令牌用完，向 Redis 租用一批，桶中不足时取出剩余的全部
+        int batch = route == Route.ORDER ? orderLease : verificationCodeLease;
+        List<?> result = executeScript(route, leaseKey, Math.max(1, batch));
+        long granted = ((Number) result.get(0)).longValue();
+        long waitMillis = ((Number) result.get(1)).longValue();
+
+        if (granted > 0) {
+            leases.put(leaseKey, Lease.granted(route, (int) granted - 1, TimeUnit.MILLISECONDS.toNanos(leaseTtl)));
+            return Decision.ALLOWED;
+        }
+        // 拒绝结果缓存到重试时间，不受租用有效期限制
+        leases.put(leaseKey, Lease.denied(TimeUnit.MILLISECONDS.toNanos(waitMillis)));
+        return Decision.denied(waitMillis);
+    }
+
+    /**
+     * 租用到期、被替换或被淘汰时，把本节点未用完的令牌归还 Redis，供其他节点使用
+     */
+    private void returnUnused(String leaseKey, Lease lease) {
+        // 置为 -1 后并发的取令牌全部失败，不会与归还的令牌重复使用
+        int unused = lease.remaining.getAndSet(-1);
+        if (unused <= 0 || redisRetryAt.get() != 0) {
+            return;
+        }
+        try {
+            executeScript(lease.route, leaseKey, -unused);
+        } catch (Exception e) {
+            log.debug("Failed to return leased rate limit tokens: {}", leaseKey, e);
+        }
+    }
+
+    /**
+     * 执行令牌桶脚本，requested 为负数时表示归还令牌
+     */
+    private List<?> executeScript(Route route, String leaseKey, int requested) {
+        int capacity = route == Route.ORDER
+                ? rateLimitConfig.getOrderCapacity()
+                : rateLimitConfig.getVerificationCodeCapacity();
+        long period = route == Route.ORDER
+                ? rateLimitConfig.getOrderRefillPeriod()
+                : rateLimitConfig.getVerificationCodeRefillPeriod();
+        return stringRedisTemplate.execute(tokenBucketScript, List.of(KEY_PREFIX + leaseKey),
+                String.valueOf(capacity), String.valueOf(period * 1000), String.valueOf(requested));
+    }
+
+    private boolean isDistributed(Route route) {
+        return "redis".equalsIgnoreCase(route == Route.ORDER ? orderMode : verificationCodeMode);
+    }
+
+    /**
+     * 本节点持有的令牌
+     */
+    private static final class Lease {
+
+        private final Route route;
+        private final AtomicInteger remaining;
+        private final boolean denied;
+        // 被 Redis 拒绝时的重试时间（System.nanoTime）
+        private final long deniedUntil;
+        // 缓存有效期，单位纳秒
+        private final long ttlNanos;
+
+        private Lease(Route route, int remaining, boolean denied, long deniedUntil, long ttlNanos) {
+            this.route = route;
+            this.remaining = new AtomicInteger(remaining);
+            this.denied = denied;
+            this.deniedUntil = deniedUntil;
+            this.ttlNanos = ttlNanos;
+        }
+
+        static Lease granted(Route route, int remaining, long ttlNanos) {
+            return new Lease(route, remaining, false, 0, ttlNanos);
+        }
+
+        static Lease denied(long waitNanos) {
+            return new Lease(null, 0, true, System.nanoTime() + waitNanos, waitNanos);
+        }
+    }
+}
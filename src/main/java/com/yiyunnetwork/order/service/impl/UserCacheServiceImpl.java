@@ -0,0 +1,93 @@
+package com.yiyunnetwork.order.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yiyunnetwork.order.service.UserCacheService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.Function;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserCacheServiceImpl implements UserCacheService, MessageListener {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    
+    @Value("${user-cache.max-size:1000}")
+    private int maxSize; // 最多缓存的用户数
+    
+    @Value("${user-cache.ttl:300}")
+    private int ttl; // 缓存有效期，单位秒
+    
+    // Redis 失效通知频道
+    private static final String INVALIDATION_CHANNEL = "cache:invalidate:user-details";
+    
+    private Cache<String, UserDetails> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttl))
+                .build();
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    @Override
+    public UserDetails getUserDetails(String username, Function<String, UserDetails> loader) {
+        return cache.get(username, loader);
+    }
+
+    @Override
+    public void evict(String username) {
+        if (username == null) {
+            return;
+        }
+        
+        cache.invalidate(username);
+        
+        // 事务提交前其他请求仍可能读到旧数据并重新写入缓存，提交后再失效一次并通知其他节点
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(username);
+                    publishInvalidation(username);
+                }
+            });
+        } else {
+            publishInvalidation(username);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String username = new String(message.getBody(), StandardCharsets.UTF_8);
+        cache.invalidate(username);
+        log.debug("User details cache invalidated by remote node: {}", username);
+    }
+    
+    private void publishInvalidation(String username) {
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, username);
+        } catch (Exception e) {
+            log.error("Failed to publish user details cache invalidation for user: " + username, e);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.yiyunnetwork.order.model.Role;
 import com.yiyunnetwork.order.model.User;
 import com.yiyunnetwork.order.repository.RoleRepository;
 import com.yiyunnetwork.order.repository.UserRepository;
+import com.yiyunnetwork.order.service.UserCacheService;
 import com.yiyunnetwork.order.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -29,6 +30,7 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserCacheService userCacheService;
 
     @Override
     public User findByUsername(String username) {
@@ -91,6 +93,10 @@ public class UserServiceImpl implements UserService {
             throw new BusinessException("邮箱已被注册");
         }
 
+        // 用户名、状态、角色、密码均可能变化，新旧用户名的认证缓存都需要失效
+        userCacheService.evict(user.getUsername());
+        userCacheService.evict(userDTO.getUsername());
+
         user.setUsername(userDTO.getUsername());
         user.setEmail(userDTO.getEmail());
         user.setRealName(userDTO.getRealName());
@@ -125,6 +131,7 @@ public class UserServiceImpl implements UserService {
 
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        userCacheService.evict(user.getUsername());
     }
 
     @Override
@@ -134,6 +141,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public void deleteUser(Long id) {
+        userRepository.findById(id).ifPresent(user -> userCacheService.evict(user.getUsername()));
         userRepository.deleteById(id);
     }
 
@@ -148,6 +156,7 @@ public class UserServiceImpl implements UserService {
         if (!user.getRoles().contains(role)) {
             user.getRoles().add(role);
             userRepository.save(user);
+            userCacheService.evict(user.getUsername());
         }
         
         return user;
@@ -163,6 +172,7 @@ public class UserServiceImpl implements UserService {
         
         user.getRoles().remove(role);
         userRepository.save(user);
+        userCacheService.evict(user.getUsername());
         
         return user;
     }
@@ -9,6 +9,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,8 +28,9 @@ public class VerificationCodeServiceImpl implements VerificationCodeService {
     // 仍然保留数据库操作，但只作为二级备份
     private final VerificationCodeRepository verificationCodeRepository;
 
-    @Qualifier("taskExecutor")
-    private final TaskExecutor taskExecutor;
+    // 数据库备份写入使用独立的并发上限，队列满时放弃备份，不占用请求线程
+    @Qualifier("verificationCodeExecutor")
+    private final TaskExecutor verificationCodeExecutor;
     
     @Value("${verification.code.expiration:600}")
     private int codeExpiration; // 验证码有效期，单位秒，默认10分钟
@@ -79,7 +81,7 @@ public class VerificationCodeServiceImpl implements VerificationCodeService {
         // 异步保存到数据库作为备份，避免阻塞响应
         final String finalCode = code;
         final LocalDateTime finalExpireTime = expireTime;
-        taskExecutor.execute(() -> {
+        executeBackup(email, () -> {
             try {
                 VerificationCode codeToSave = VerificationCode.builder()
                         .email(email)
@@ -119,7 +121,7 @@ public class VerificationCodeServiceImpl implements VerificationCodeService {
         stringRedisTemplate.delete(codeKey);
         
         // 异步在数据库中标记为已使用
-        taskExecutor.execute(() -> {
+        executeBackup(email, () -> {
             try {
                 verificationCodeRepository
                         .findByEmailAndCodeAndUsedAndExpireTimeAfter(email, code, false, LocalDateTime.now())
@@ -140,4 +142,15 @@ public class VerificationCodeServiceImpl implements VerificationCodeService {
         String cooldownKey = COOLDOWN_KEY_PREFIX + email;
         return !Boolean.TRUE.equals(stringRedisTemplate.hasKey(cooldownKey));
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 提交数据库备份任务，Redis 是验证码的主存储，备份任务被拒绝时只记录日志
+     */
+    private void executeBackup(String email, Runnable task) {
+        try {
+            verificationCodeExecutor.execute(task);
+        } catch (TaskRejectedException e) {
+            log.warn("Verification code backup skipped for email: {}", email, e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.yiyunnetwork.order.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按任务类型限制并发的执行器
+ * 同一类型最多 concurrencyLimit 个任务同时运行，其余任务在本地队列中等待；
+ * 队列满时直接拒绝，不会在提交线程（如HTTP请求线程）中执行任务，也不会阻塞提交线程。
+ * 底层执行器不能使用 CallerRunsPolicy 等在提交线程中执行的拒绝策略，否则任务会在请求线程、调度线程
+ * 或其他任务结束时的 drain() 中同步执行
+ */
+public class ConcurrencyLimitedExecutor implements TaskExecutor {
+
+    private final String type;
+    private final Executor delegate;
+    private final int concurrencyLimit;
+    private final int queueCapacity;
+    private final Semaphore permits;
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Counter rejectedCounter;
+
+    /**
+     * @param type             任务类型，用作指标标签
+     * @param delegate         实际执行任务的执行器（平台线程池或虚拟线程），饱和时需抛出异常而不是在提交线程中执行
+     * @param concurrencyLimit 最大并发数
+     * @param queueCapacity    等待队列容量
+     * @param meterRegistry    指标注册表
+     */
+    public ConcurrencyLimitedExecutor(String type, Executor delegate, int concurrencyLimit, int queueCapacity,
+                                      MeterRegistry meterRegistry) {
+        this.type = type;
+        this.delegate = delegate;
+        this.concurrencyLimit = concurrencyLimit;
+        this.queueCapacity = queueCapacity;
+        this.permits = new Semaphore(concurrencyLimit);
+
+        Gauge.builder("executor.tasks.queued", queued, AtomicInteger::get)
+                .description("等待执行的任务数")
+                .tag("type", type)
+                .register(meterRegistry);
+        Gauge.builder("executor.tasks.active", permits, p -> concurrencyLimit - p.availablePermits())
+                .description("正在执行的任务数")
+                .tag("type", type)
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("executor.tasks.rejected")
+                .description("因队列已满被拒绝的任务数")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            rejectedCounter.increment();
+            throw new TaskRejectedException("任务队列已满：" + type);
+        }
+        queue.offer(task);
+        drain();
+    }
+
+    /**
+     * 在有空闲并发额度时，把队列中的任务交给底层执行器
+     */
+    private void drain() {
+        while (!queue.isEmpty() && permits.tryAcquire()) {
+            Runnable task = queue.poll();
+            if (task == null) {
+                // 其他线程已取走任务，归还额度后重新检查队列
+                permits.release();
+                continue;
+            }
+            queued.decrementAndGet();
+            try {
+                delegate.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                        drain();
+                    }
+                });
+            } catch (RuntimeException e) {
+                permits.release();
+                rejectedCounter.increment();
+                throw e;
+            }
+        }
+    }
+
+    public int getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+}
@@ -0,0 +1,43 @@
+package com.yiyunnetwork.order.util;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * HTTP 条件请求（ETag / Last-Modified）工具类
+ */
+public final class HttpCacheUtils {
+
+    private HttpCacheUtils() {
+    }
+
+    /**
+     * 根据资源版本检查 If-None-Match / If-Modified-Since，未变化时响应已设为 304，调用方直接返回 null
+     * 响应要求客户端每次使用前重新验证（Cache-Control: private, no-cache）
+     *
+     * @param request      当前请求
+     * @param version      资源版本标识，用于生成弱 ETag
+     * @param lastModified 资源最后修改时间，可为 null
+     * @return 资源未变化时返回 true
+     */
+    public static boolean checkNotModified(ServletWebRequest request, String version, LocalDateTime lastModified) {
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        }
+        String etag = "W/\"" + version + "\"";
+        if (lastModified == null) {
+            return request.checkNotModified(etag);
+        }
+        return request.checkNotModified(etag, toEpochMilli(lastModified));
+    }
+
+    /**
+     * 转换为毫秒时间戳，时间为 null 时返回 0
+     */
+    public static long toEpochMilli(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+    }
+}
@@ -1,9 +1,14 @@
 package com.yiyunnetwork.order.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -13,6 +18,7 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
@@ -24,6 +30,54 @@ public class JwtUtil {
     @Value("${jwt.expiration:86400000}") // 默认24小时
     private long expiration;
 
+    @Value("${jwt.verified-cache-size:10000}") // 已验签令牌缓存条数
+    private int verifiedCacheSize;
+
+    // 签名密钥与解析器在启动时构建一次
+    private Key signingKey;
+    private JwtParser jwtParser;
+
+    // 已验签令牌缓存，同一令牌的重复请求无需再次验签，条目在令牌过期时失效
+    private Cache<String, VerifiedJwt> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new Expiry<String, VerifiedJwt>() {
+                    @Override
+                    public long expireAfterCreate(String token, VerifiedJwt jwt, long currentTime) {
+                        long remainingMillis = jwt.expiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, VerifiedJwt jwt, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, VerifiedJwt jwt, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    // 解析并验签token，结果按令牌缓存；令牌无效或已过期时抛出JwtException
+    public VerifiedJwt verify(String token) {
+        return verifiedTokens.get(token, t -> {
+            Claims claims = extractAllClaims(t);
+            return new VerifiedJwt(claims.getSubject(), claims.getExpiration());
+        });
+    }
+
     // 从token中提取用户名
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -42,18 +96,11 @@ public class JwtUtil {
 
     // 解析token获取所有信息
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+        return jwtParser
                 .parseClaimsJws(token)
                 .getBody();
     }
 
-    // 检查token是否过期
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
     // 为用户生成token
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
@@ -67,19 +114,17 @@ public class JwtUtil {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
+    // 验证已解析的token是否属于该用户且未过期
+    public Boolean validateToken(VerifiedJwt jwt, UserDetails userDetails) {
+        return (jwt.username().equals(userDetails.getUsername()) && !jwt.isExpired());
+    }
+
     // 验证token是否有效
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }
-    
-    // 获取签名密钥
-    private Key getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return validateToken(verify(token), userDetails);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,49 @@
+package com.yiyunnetwork.order.util;
+
+import com.yiyunnetwork.order.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * 订单列表游标，按 (createTime, id) 倒序定位下一页的起点
+ * 对外以不透明的Base64URL字符串传递
+ */
+public record OrderCursor(LocalDateTime createTime, UUID id) {
+
+    /**
+     * 第一页的起点：比任何订单都"新"的位置
+     */
+    public static final OrderCursor FIRST = new OrderCursor(
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59), new UUID(-1L, -1L));
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * 编码为不透明字符串
+     */
+    public String encode() {
+        String raw = createTime.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标，为空时返回第一页起点
+     */
+    public static OrderCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new OrderCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new BusinessException("无效的分页游标", e);
+        }
+    }
+}
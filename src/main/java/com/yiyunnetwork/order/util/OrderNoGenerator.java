@@ -0,0 +1,131 @@
+package com.yiyunnetwork.order.util;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 订单号生成器
+ * <p>
+ * 格式：日期时间 yyyyMMddHHmmss(14位) + 节点号(2位) + 秒内序号(4位)，共20位。
+ * 各节点的节点号不同即可保证跨节点不重复（由 OrderUtils 配置或从 Redis 租用）；同一节点内用一个原子变量保存“秒 + 序号”，
+ * CAS 递增，无锁且单调。某一秒的序号用完后借用下一秒，订单号中的时间可能略超前于实际时间；
+ * 时钟回拨时沿用已发出的最大秒数，不会重复。
+ * 状态从创建时的时间开始，重启后可通过 {@link #advancePast(String)} 跳过数据库中已有的最大订单号所在的秒，
+ * 避免重启前借用的秒数或跨重启的时钟回拨导致重复
+ * <p>
+ * 直接写入字符数组，不经过格式化器；日期时间前缀每秒只计算一次
+ */
+public class OrderNoGenerator {
+
+    public static final int MAX_NODE_ID = 99;
+    /**
+     * 每个节点每秒可生成的订单号数量
+     */
+    public static final int SEQUENCE_LIMIT = 10000;
+
+    private static final int LENGTH = 20;
+    private static final int PREFIX_LENGTH = 14;
+
+    private final int nodeId;
+    private final ZoneId zone;
+    private final LongSupplier epochSeconds;
+    // 秒 * SEQUENCE_LIMIT + 序号，序号到上限时自然进位到下一秒
+    private final AtomicLong state;
+    private volatile Prefix prefix = new Prefix(Long.MIN_VALUE, null);
+
+    public OrderNoGenerator(int nodeId) {
+        this(nodeId, ZoneId.systemDefault(), () -> System.currentTimeMillis() / 1000);
+    }
+
+    OrderNoGenerator(int nodeId, ZoneId zone, LongSupplier epochSeconds) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("节点号必须在 0-" + MAX_NODE_ID + " 之间：" + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.zone = zone;
+        this.epochSeconds = epochSeconds;
+        // 从创建时的秒开始，之后时钟回拨也不会早于此
+        this.state = new AtomicLong(epochSeconds.getAsLong() * SEQUENCE_LIMIT - 1);
+    }
+
+    /**
+     * 之后生成的订单号从指定订单号所在秒的下一秒开始
+     *
+     * @param orderNo 已发出的订单号，只使用前14位日期时间，格式不符时忽略
+     */
+    public void advancePast(String orderNo) {
+        if (orderNo == null || orderNo.length() < PREFIX_LENGTH) {
+            return;
+        }
+        LocalDateTime time;
+        try {
+            time = LocalDateTime.of(
+                    Integer.parseInt(orderNo, 0, 4, 10),
+                    Integer.parseInt(orderNo, 4, 6, 10),
+                    Integer.parseInt(orderNo, 6, 8, 10),
+                    Integer.parseInt(orderNo, 8, 10, 10),
+                    Integer.parseInt(orderNo, 10, 12, 10),
+                    Integer.parseInt(orderNo, 12, 14, 10));
+        } catch (RuntimeException e) {
+            return;
+        }
+        long second = time.atZone(zone).toEpochSecond();
+        // 下一次生成时进位到 second + 1
+        long floor = (second + 1) * SEQUENCE_LIMIT - 1;
+        state.accumulateAndGet(floor, Math::max);
+    }
+
+    public String next() {
+        long now = epochSeconds.getAsLong();
+        long current;
+        long next;
+        do {
+            current = state.get();
+            next = current / SEQUENCE_LIMIT < now ? now * SEQUENCE_LIMIT : current + 1;
+        } while (!state.compareAndSet(current, next));
+
+        long second = next / SEQUENCE_LIMIT;
+        int sequence = (int) (next % SEQUENCE_LIMIT);
+
+        char[] chars = new char[LENGTH];
+        System.arraycopy(prefixOf(second), 0, chars, 0, PREFIX_LENGTH);
+        writeDigits(chars, PREFIX_LENGTH, 2, nodeId);
+        writeDigits(chars, PREFIX_LENGTH + 2, 4, sequence);
+        return new String(chars);
+    }
+
+    private char[] prefixOf(long second) {
+        Prefix cached = prefix;
+        if (cached.second == second) {
+            return cached.digits;
+        }
+
+        LocalDateTime time = LocalDateTime.ofEpochSecond(second, 0,
+                zone.getRules().getOffset(Instant.ofEpochSecond(second)));
+        char[] digits = new char[PREFIX_LENGTH];
+        writeDigits(digits, 0, 4, time.getYear());
+        writeDigits(digits, 4, 2, time.getMonthValue());
+        writeDigits(digits, 6, 2, time.getDayOfMonth());
+        writeDigits(digits, 8, 2, time.getHour());
+        writeDigits(digits, 10, 2, time.getMinute());
+        writeDigits(digits, 12, 2, time.getSecond());
+        // 借用下一秒时可能有两个秒数交替出现，只缓存较新的一个
+        if (second > cached.second) {
+            prefix = new Prefix(second, digits);
+        }
+        return digits;
+    }
+
+    private static void writeDigits(char[] chars, int offset, int width, int value) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private record Prefix(long second, char[] digits) {
+    }
+}
@@ -0,0 +1,162 @@
+package com.yiyunnetwork.order.util;
+
+import com.yiyunnetwork.order.exception.BusinessException;
+import com.yiyunnetwork.order.model.enums.OrderStatus;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * 订单状态机：按 (原状态, 新状态) 声明允许的变更、可执行的角色和附带的操作
+ * <p>
+ * 启动时编译为按原状态索引的位图，校验只需一次位运算。
+ * 新增状态时只需在枚举中添加并在这里声明对应的变更。
+ */
+public final class OrderStateMachine {
+
+    /**
+     * 执行变更的角色
+     */
+    public enum Role {
+        CUSTOMER, AGENT, ADMIN
+    }
+
+    /**
+     * 变更附带的操作
+     */
+    public enum Effect {
+        /**
+         * 将操作人设为订单代理
+         */
+        ASSIGN_AGENT,
+        /**
+         * 将操作人设为订单超管
+         */
+        ASSIGN_ADMIN,
+        /**
+         * 记录完成时间
+         */
+        SET_COMPLETE_TIME
+    }
+
+    private static final Map<OrderStatus, String> LABELS = new EnumMap<>(OrderStatus.class);
+    // 原状态 -> 按新状态序号索引的变更，未声明的为null
+    private static final Map<OrderStatus, Edge[]> EDGES = new EnumMap<>(OrderStatus.class);
+    // 按原状态序号索引，第 n 位表示可变更为序号为 n 的状态
+    private static final long[] TARGETS = new long[OrderStatus.values().length];
+
+    static {
+        LABELS.put(OrderStatus.PENDING_AGENT_REVIEW, "待代理审核");
+        LABELS.put(OrderStatus.PENDING_ADMIN_REVIEW, "待超管审核");
+        LABELS.put(OrderStatus.IN_PROGRESS, "执行中");
+        LABELS.put(OrderStatus.COMPLETED, "已完成");
+        LABELS.put(OrderStatus.REJECTED, "已退回");
+        LABELS.put(OrderStatus.CANCELLED, "已取消");
+
+        edge(OrderStatus.PENDING_AGENT_REVIEW, OrderStatus.PENDING_ADMIN_REVIEW,
+                roles(Role.AGENT, Role.ADMIN), Effect.ASSIGN_AGENT);
+        edge(OrderStatus.PENDING_AGENT_REVIEW, OrderStatus.REJECTED, roles(Role.AGENT, Role.ADMIN));
+        edge(OrderStatus.PENDING_AGENT_REVIEW, OrderStatus.CANCELLED, roles(Role.CUSTOMER, Role.ADMIN));
+        edge(OrderStatus.PENDING_ADMIN_REVIEW, OrderStatus.IN_PROGRESS, roles(Role.ADMIN), Effect.ASSIGN_ADMIN);
+        edge(OrderStatus.PENDING_ADMIN_REVIEW, OrderStatus.REJECTED, roles(Role.ADMIN), Effect.ASSIGN_ADMIN);
+        edge(OrderStatus.PENDING_ADMIN_REVIEW, OrderStatus.PENDING_AGENT_REVIEW, roles(Role.ADMIN));
+        edge(OrderStatus.IN_PROGRESS, OrderStatus.COMPLETED, roles(Role.ADMIN), Effect.SET_COMPLETE_TIME);
+    }
+
+    private OrderStateMachine() {
+    }
+
+    /**
+     * 是否允许从原状态变更为新状态（不区分角色）
+     */
+    public static boolean canTransition(OrderStatus from, OrderStatus to) {
+        return (TARGETS[from.ordinal()] & (1L << to.ordinal())) != 0;
+    }
+
+    /**
+     * 查找并校验变更
+     *
+     * @throws BusinessException 不允许该变更，或该角色不能执行该变更
+     */
+    public static Edge require(OrderStatus from, OrderStatus to, Role role) {
+        if (!canTransition(from, to)) {
+            throw new BusinessException(describeTargets(from));
+        }
+        Edge edge = EDGES.get(from)[to.ordinal()];
+        if (!edge.allows(role)) {
+            throw new BusinessException("当前角色不能将" + label(from) + "的订单变更为" + label(to) + "状态");
+        }
+        return edge;
+    }
+
+    public static String label(OrderStatus status) {
+        return LABELS.getOrDefault(status, status.name());
+    }
+
+    private static String describeTargets(OrderStatus from) {
+        long targets = TARGETS[from.ordinal()];
+        if (targets == 0) {
+            return label(from) + "的订单不能更改状态";
+        }
+        StringJoiner joiner = new StringJoiner("、");
+        for (OrderStatus to : OrderStatus.values()) {
+            if ((targets & (1L << to.ordinal())) != 0) {
+                joiner.add(label(to));
+            }
+        }
+        return label(from) + "的订单只能变更为" + joiner + "状态";
+    }
+
+    private static int roles(Role... roles) {
+        int mask = 0;
+        for (Role role : roles) {
+            mask |= 1 << role.ordinal();
+        }
+        return mask;
+    }
+
+    private static void edge(OrderStatus from, OrderStatus to, int roles, Effect... effects) {
+        int effectMask = 0;
+        for (Effect effect : effects) {
+            effectMask |= 1 << effect.ordinal();
+        }
+        EDGES.computeIfAbsent(from, s -> new Edge[OrderStatus.values().length])[to.ordinal()] =
+                new Edge(from, to, roles, effectMask);
+        TARGETS[from.ordinal()] |= 1L << to.ordinal();
+    }
+
+    /**
+     * 一条状态变更，不可变
+     */
+    public static final class Edge {
+
+        private final OrderStatus from;
+        private final OrderStatus to;
+        private final int roles;
+        private final int effects;
+
+        private Edge(OrderStatus from, OrderStatus to, int roles, int effects) {
+            this.from = from;
+            this.to = to;
+            this.roles = roles;
+            this.effects = effects;
+        }
+
+        public OrderStatus getFrom() {
+            return from;
+        }
+
+        public OrderStatus getTo() {
+            return to;
+        }
+
+        public boolean allows(Role role) {
+            return (roles & (1 << role.ordinal())) != 0;
+        }
+
+        public boolean has(Effect effect) {
+            return (effects & (1 << effect.ordinal())) != 0;
+        }
+    }
+}
@@ -1,34 +1,154 @@
 package com.yiyunnetwork.order.util;
 
+import com.yiyunnetwork.order.exception.BusinessException;
 import com.yiyunnetwork.order.model.Order;
+import com.yiyunnetwork.order.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.Random;
+import java.time.Duration;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 订单工具类
+ * <p>
+ * 订单号的节点号：配置了 order-no.node-id 时直接使用（由部署方保证各节点不同）；
+ * 未配置时从 Redis 租用一个未被占用的节点号，并定期续期，Redis 不可用时启动失败，
+ * 不会让多个节点使用同一个默认节点号。
+ * 续期在专用线程上执行，不受其他定时任务影响；本地记录租约的有效期限（续期成功时间 + 有效期 − 余量），
+ * 超过期限仍未续期成功时生成订单号前先续期或重新租用，仍失败则拒绝生成，避免与接手该节点号的节点重复
  */
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class OrderUtils {
 
-    private static final Random RANDOM = new Random();
-    private static final DateTimeFormatter ORDER_NO_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private final StringRedisTemplate stringRedisTemplate;
+    private final OrderRepository orderRepository;
 
     @Value("${application.frontend-url:http://localhost:3000}")
     private String frontendUrl;
 
+    @Value("${order-no.node-id:-1}")
+    private int configuredNodeId; // 订单号中的节点号（0-99），未配置时从 Redis 租用
+
+    @Value("${order-no.node-lease-ttl:60}")
+    private int nodeLeaseTtl; // 租用节点号的有效期，单位秒，需大于续期间隔
+
+    @Value("${order-no.node-lease-margin:10}")
+    private int nodeLeaseMargin; // 本地认为租约有效的期限比 Redis 中的有效期提前的秒数，抵消时钟误差和网络延迟
+
+    @Value("${order-no.node-lease-renew-interval:15000}")
+    private long nodeLeaseRenewInterval; // 租用节点号的续期间隔，单位毫秒
+
+    // 节点号分配计数器与占用标记
+    private static final String NODE_SEQUENCE_KEY = "order-no:node-sequence";
+    private static final String NODE_KEY_PREFIX = "order-no:node:";
+
+    // 仍由本实例持有时才续期 / 删除，判断与操作在同一脚本中原子执行
+    private static final RedisScript<Long> RENEW_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/renew_lease.lua"), Long.class);
+    private static final RedisScript<Long> RELEASE_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/release_lease.lua"), Long.class);
+
+    // 本实例的租用标识
+    private final String leaseOwner = UUID.randomUUID().toString();
+    private volatile int leasedNodeId = -1;
+    // 本地认为租约有效的期限（System.nanoTime）
+    private volatile long leaseDeadline;
+    private volatile OrderNoGenerator orderNoGenerator;
+
+    // 续期专用线程，不占用共享的定时任务线程
+    private ScheduledExecutorService leaseRenewer;
+
+    @PostConstruct
+    public void init() {
+        int nodeId = configuredNodeId >= 0 ? configuredNodeId : leaseNodeId();
+        orderNoGenerator = createGenerator(nodeId);
+        log.info("Order number node id: {}{}", nodeId, configuredNodeId >= 0 ? "" : " (leased)");
+        if (configuredNodeId < 0) {
+            leaseRenewer = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "order-no-lease");
+                thread.setDaemon(true);
+                return thread;
+            });
+            leaseRenewer.scheduleWithFixedDelay(this::renewNodeLease,
+                    nodeLeaseRenewInterval, nodeLeaseRenewInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
     /**
      * 生成订单号
-     * 格式: 日期时间(14位) + 随机数(6位)
+     * 格式: 日期时间(14位) + 节点号(2位) + 秒内序号(4位)
      */
     public String generateOrderNo() {
-        return LocalDateTime.now().format(ORDER_NO_FORMATTER) + String.format("%06d", RANDOM.nextInt(1000000));
+        if (leasedNodeId >= 0 && System.nanoTime() - leaseDeadline > 0 && !ensureLease()) {
+            throw new BusinessException("订单号服务暂不可用，请稍后重试");
+        }
+        return orderNoGenerator.next();
+    }
+
+    /**
+     * 续期租用的节点号；租约已丢失（如长时间无法连接 Redis 后被其他节点占用）时重新租用
+     *
+     * @return 续期或重新租用是否成功
+     */
+    public synchronized boolean renewNodeLease() {
+        int nodeId = leasedNodeId;
+        if (nodeId < 0) {
+            return true;
+        }
+        long start = System.nanoTime();
+        try {
+            Long renewed = stringRedisTemplate.execute(RENEW_SCRIPT, List.of(NODE_KEY_PREFIX + nodeId),
+                    leaseOwner, String.valueOf(TimeUnit.SECONDS.toMillis(nodeLeaseTtl)));
+            if (renewed != null && renewed == 1) {
+                leaseDeadline = deadlineFrom(start);
+                return true;
+            }
+            log.error("Order number node id {} lease was lost, leasing a new one", nodeId);
+            int newNodeId = leaseNodeId();
+            orderNoGenerator = createGenerator(newNodeId);
+            log.info("Order number node id: {} (leased)", newNodeId);
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to renew order number node id lease: " + nodeId, e);
+            return false;
+        }
+    }
+
+    /**
+     * 本地期限已过时续期，并发请求只由第一个续期
+     */
+    private synchronized boolean ensureLease() {
+        return System.nanoTime() - leaseDeadline <= 0 || renewNodeLease();
+    }
+
+    @PreDestroy
+    public void releaseNodeLease() {
+        if (leaseRenewer != null) {
+            leaseRenewer.shutdownNow();
+        }
+        int nodeId = leasedNodeId;
+        if (nodeId < 0) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(NODE_KEY_PREFIX + nodeId), leaseOwner);
+        } catch (Exception e) {
+            log.warn("Failed to release order number node id lease: {}", nodeId);
+        }
     }
 
     /**
@@ -51,4 +171,45 @@ public class OrderUtils {
     public String generateQrCodeContent(Order order) {
         return generateOrderLink(order);
     }
-} 
\ No newline at end of file
+
+    /**
+     * 创建生成器，从数据库中最大订单号所在秒的下一秒开始，
+     * 重启前借用的秒数或跨重启的时钟回拨都不会重复发出已有的订单号
+     */
+    private OrderNoGenerator createGenerator(int nodeId) {
+        OrderNoGenerator generator = new OrderNoGenerator(nodeId);
+        generator.advancePast(orderRepository.findMaxOrderNo());
+        return generator;
+    }
+
+    /**
+     * 用 INCR 轮转候选节点号，SET NX 占用第一个空闲的
+     */
+    private int leaseNodeId() {
+        int slots = OrderNoGenerator.MAX_NODE_ID + 1;
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < slots; i++) {
+                Long sequence = stringRedisTemplate.opsForValue().increment(NODE_SEQUENCE_KEY);
+                int candidate = (int) Math.floorMod(sequence != null ? sequence : 0L, (long) slots);
+                Boolean acquired = stringRedisTemplate.opsForValue()
+                        .setIfAbsent(NODE_KEY_PREFIX + candidate, leaseOwner, Duration.ofSeconds(nodeLeaseTtl));
+                if (Boolean.TRUE.equals(acquired)) {
+                    leaseDeadline = deadlineFrom(start);
+                    leasedNodeId = candidate;
+                    return candidate;
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("未配置 order-no.node-id 且无法从 Redis 租用订单号节点号", e);
+        }
+        throw new IllegalStateException("订单号节点号（0-" + OrderNoGenerator.MAX_NODE_ID + "）均已被占用");
+    }
+
+    /**
+     * 从发出租用或续期请求的时间算起的本地有效期限，Redis 中的有效期不会早于这个时间开始计算
+     */
+    private long deadlineFrom(long requestNanos) {
+        return requestNanos + TimeUnit.SECONDS.toNanos(Math.max(nodeLeaseTtl - nodeLeaseMargin, 1));
+    }
+}
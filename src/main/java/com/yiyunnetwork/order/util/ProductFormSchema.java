@@ -0,0 +1,280 @@
+package com.yiyunnetwork.order.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yiyunnetwork.order.exception.BusinessException;
+import com.yiyunnetwork.order.model.ProductField;
+import com.yiyunnetwork.order.model.enums.FieldType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 预编译的商品表单结构，用于校验订单字段
+ * <p>
+ * 校验规则（validationRule）：
+ * 文本字段为正则表达式，需整体匹配；
+ * 数字字段可填写取值范围 "最小值,最大值"（任一端可省略，可加方括号，如 "[1,100]"、"0,"），否则按正则表达式处理。
+ * 单选/多选字段的取值必须是 options 中的 value，多选的值为JSON数组或逗号分隔。
+ * 字段值最长 {@value #MAX_VALUE_LENGTH} 个字符，按正则表达式校验的值最长 {@value #MAX_PATTERN_INPUT_LENGTH} 个字符，
+ * 避免回溯严重的规则在超长输入上耗尽CPU。
+ * <p>
+ * 每个商品版本（商品更新时间）编译一次，不可变，可在线程间共享
+ */
+@Slf4j
+public class ProductFormSchema {
+
+    /**
+     * 字段值的最大长度，与 order_fields.field_value 列一致
+     */
+    public static final int MAX_VALUE_LENGTH = 5000;
+    /**
+     * 按正则表达式校验的字段值的最大长度
+     */
+    public static final int MAX_PATTERN_INPUT_LENGTH = 500;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final Pattern RANGE = Pattern.compile("\\[?\\s*(-?[0-9.]*)\\s*,\\s*(-?[0-9.]*)\\s*]?");
+
+    private final LocalDateTime version;
+    private final List<CompiledField> fields;
+
+    private ProductFormSchema(LocalDateTime version, List<CompiledField> fields) {
+        this.version = version;
+        this.fields = fields;
+    }
+
+    /**
+     * 编译商品字段，用于保存商品前检查配置
+     *
+     * @param version       商品版本（更新时间），版本变化后需重新编译
+     * @param productFields 按显示顺序排列的商品字段
+     * @throws BusinessException 字段的校验规则或选项配置无效
+     */
+    public static ProductFormSchema compile(LocalDateTime version, List<ProductField> productFields) {
+        return new ProductFormSchema(version,
+                productFields.stream().map(field -> CompiledField.compile(field, true)).toList());
+    }
+
+    /**
+     * 编译已保存的商品字段，用于校验订单
+     * 在加入编译校验之前保存的商品可能带有无效的校验规则或选项配置，这些配置被忽略并记录警告，
+     * 字段的必填等其他校验照常进行，不会因此拒绝该商品的所有订单
+     *
+     * @param version       商品版本（更新时间），版本变化后需重新编译
+     * @param productFields 按显示顺序排列的商品字段
+     */
+    public static ProductFormSchema compileLenient(LocalDateTime version, List<ProductField> productFields) {
+        return new ProductFormSchema(version,
+                productFields.stream().map(field -> CompiledField.compile(field, false)).toList());
+    }
+
+    public LocalDateTime getVersion() {
+        return version;
+    }
+
+    /**
+     * 按显示顺序排列的字段
+     */
+    public List<CompiledField> getFields() {
+        return fields;
+    }
+
+    /**
+     * 一次遍历校验全部字段，未提交的非必填字段跳过，不属于该商品的字段不保存也不校验
+     *
+     * @param values 订单字段值（字段标识 -> 值）
+     * @return 校验失败的字段（字段标识 -> 错误信息），全部通过时为空
+     */
+    public Map<String, String> validate(Map<String, String> values) {
+        Map<String, String> errors = null;
+        for (CompiledField field : fields) {
+            String error = field.validate(values.get(field.key));
+            if (error != null) {
+                if (errors == null) {
+                    errors = new LinkedHashMap<>();
+                }
+                errors.put(field.key, error);
+            }
+        }
+        return errors != null ? errors : Collections.emptyMap();
+    }
+
+    /**
+     * 编译后的单个字段
+     */
+    public static final class CompiledField {
+
+        private final String key;
+        private final String name;
+        private final FieldType type;
+        private final boolean required;
+        private final Pattern pattern;
+        private final BigDecimal min;
+        private final BigDecimal max;
+        private final Set<String> options;
+        private final String invalidMessage;
+
+        private CompiledField(ProductField field, Pattern pattern, BigDecimal min, BigDecimal max, Set<String> options) {
+            this.key = field.getFieldKey();
+            this.name = field.getName();
+            this.type = field.getFieldType();
+            this.required = Boolean.TRUE.equals(field.getRequired());
+            this.pattern = pattern;
+            this.min = min;
+            this.max = max;
+            this.options = options;
+            this.invalidMessage = field.getValidationMessage() != null && !field.getValidationMessage().isBlank()
+                    ? field.getValidationMessage()
+                    : "字段 " + field.getName() + " 格式不正确";
+        }
+
+        private static CompiledField compile(ProductField field, boolean strict) {
+            String rule = field.getValidationRule() != null ? field.getValidationRule().trim() : "";
+            Pattern pattern = null;
+            BigDecimal min = null;
+            BigDecimal max = null;
+            Set<String> options = null;
+
+            try {
+                switch (field.getFieldType()) {
+                    case RADIO, CHECKBOX -> options = parseOptions(field, strict);
+                    case NUMBER -> {
+                        var range = RANGE.matcher(rule);
+                        if (!rule.isEmpty() && range.matches()) {
+                            min = range.group(1).isEmpty() ? null : new BigDecimal(range.group(1));
+                            max = range.group(2).isEmpty() ? null : new BigDecimal(range.group(2));
+                        } else if (!rule.isEmpty()) {
+                            pattern = Pattern.compile(rule);
+                        }
+                    }
+                    default -> {
+                        if (!rule.isEmpty()) {
+                            pattern = Pattern.compile(rule);
+                        }
+                    }
+                }
+            } catch (PatternSyntaxException | NumberFormatException e) {
+                if (strict) {
+                    throw new BusinessException("字段 " + field.getName() + " 的校验规则无效：" + rule, e);
+                }
+                log.warn("Ignoring invalid validation rule of product field {} ({}): {}",
+                        field.getId(), field.getFieldKey(), rule);
+                pattern = null;
+                min = null;
+                max = null;
+            }
+            return new CompiledField(field, pattern, min, max, options);
+        }
+
+        private static Set<String> parseOptions(ProductField field, boolean strict) {
+            Set<String> values = new HashSet<>();
+            if (field.getOptions() == null || field.getOptions().isBlank()) {
+                return values;
+            }
+            try {
+                for (JsonNode option : OBJECT_MAPPER.readTree(field.getOptions())) {
+                    values.add(option.has("value") ? option.get("value").asText() : option.asText());
+                }
+            } catch (Exception e) {
+                if (strict) {
+                    throw new BusinessException("字段 " + field.getName() + " 的选项配置无效", e);
+                }
+                // 选项为空时不限制取值
+                log.warn("Ignoring invalid options of product field {} ({})", field.getId(), field.getFieldKey());
+                values.clear();
+            }
+            return values;
+        }
+
+        /**
+         * @return 错误信息，校验通过时返回null
+         */
+        private String validate(String value) {
+            if (value == null || value.isBlank()) {
+                return required ? "字段 " + name + " 为必填项" : null;
+            }
+            if (value.length() > MAX_VALUE_LENGTH) {
+                return "字段 " + name + " 不能超过" + MAX_VALUE_LENGTH + "个字符";
+            }
+
+            switch (type) {
+                case NUMBER -> {
+                    BigDecimal number;
+                    try {
+                        number = new BigDecimal(value.trim());
+                    } catch (NumberFormatException e) {
+                        return "字段 " + name + " 必须是数字";
+                    }
+                    if ((min != null && number.compareTo(min) < 0) || (max != null && number.compareTo(max) > 0)) {
+                        return invalidMessage;
+                    }
+                }
+                case RADIO -> {
+                    if (!options.isEmpty() && !options.contains(value)) {
+                        return "字段 " + name + " 的选项无效";
+                    }
+                }
+                case CHECKBOX -> {
+                    if (!options.isEmpty() && !checkboxValuesValid(value)) {
+                        return "字段 " + name + " 的选项无效";
+                    }
+                }
+                default -> {
+                }
+            }
+
+            if (pattern != null
+                    && (value.length() > MAX_PATTERN_INPUT_LENGTH || !pattern.matcher(value).matches())) {
+                return invalidMessage;
+            }
+            return null;
+        }
+
+        private boolean checkboxValuesValid(String value) {
+            String trimmed = value.trim();
+            if (trimmed.startsWith("[")) {
+                try {
+                    for (JsonNode item : OBJECT_MAPPER.readTree(trimmed)) {
+                        if (!options.contains(item.asText())) {
+                            return false;
+                        }
+                    }
+                    return true;
+                } catch (Exception e) {
+                    return false;
+                }
+            }
+            // 逗号分隔，逐段比较，不经过正则拆分
+            int start = 0;
+            while (start <= trimmed.length()) {
+                int end = trimmed.indexOf(',', start);
+                if (end < 0) {
+                    end = trimmed.length();
+                }
+                if (!options.contains(trimmed.substring(start, end).trim())) {
+                    return false;
+                }
+                start = end + 1;
+            }
+            return true;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public FieldType getType() {
+            return type;
+        }
+    }
+}
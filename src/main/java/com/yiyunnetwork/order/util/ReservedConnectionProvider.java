@@ -0,0 +1,96 @@
+package com.yiyunnetwork.order.util;
+
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.service.UnknownUnwrapTypeException;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * Hibernate 连接提供者：表生成器预取主键时从独立的小连接池取连接，其余连接来自应用数据源
+ * <p>
+ * 预取在另一个独立连接上执行，调用方事务仍占着自己的连接。若与事务共用连接池，
+ * 所有连接都被等待预取的事务占用时，预取只能等到连接池超时。
+ * 独立连接池只服务于预取，借出的连接很快归还，不受主连接池是否占满影响
+ */
+public class ReservedConnectionProvider implements ConnectionProvider, Closeable {
+
+    // 当前线程是否正在为表生成器预取主键
+    private static final ThreadLocal<Boolean> PREFETCHING = new ThreadLocal<>();
+
+    private final DataSource dataSource;
+    private final DataSource idGeneratorDataSource;
+
+    /**
+     * @param dataSource            应用数据源
+     * @param idGeneratorDataSource 预取主键专用的连接池
+     */
+    public ReservedConnectionProvider(DataSource dataSource, DataSource idGeneratorDataSource) {
+        this.dataSource = dataSource;
+        this.idGeneratorDataSource = idGeneratorDataSource;
+    }
+
+    /**
+     * 以预取主键的身份执行，期间获取的连接来自专用连接池
+     */
+    public static <T> T prefetch(Supplier<T> action) {
+        if (PREFETCHING.get() != null) {
+            return action.get();
+        }
+        PREFETCHING.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            PREFETCHING.remove();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return PREFETCHING.get() != null ? idGeneratorDataSource.getConnection() : dataSource.getConnection();
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        connection.close();
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return true;
+    }
+
+    @Override
+    public boolean isUnwrappableAs(Class<?> unwrapType) {
+        return ConnectionProvider.class.equals(unwrapType)
+                || ReservedConnectionProvider.class.isAssignableFrom(unwrapType)
+                || DataSource.class.isAssignableFrom(unwrapType);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (ConnectionProvider.class.equals(unwrapType)
+                || ReservedConnectionProvider.class.isAssignableFrom(unwrapType)) {
+            return (T) this;
+        }
+        if (DataSource.class.isAssignableFrom(unwrapType)) {
+            return (T) dataSource;
+        }
+        throw new UnknownUnwrapTypeException(unwrapType);
+    }
+
+    /**
+     * 关闭预取主键专用的连接池，应用数据源由 Spring 管理
+     */
+    @Override
+    public void close() throws IOException {
+        if (idGeneratorDataSource instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.yiyunnetwork.order.util;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.TableGenerator;
+
+/**
+ * 表生成器：预取主键区间时使用 {@link ReservedConnectionProvider} 的专用连接池，
+ * 区间内分配主键不访问数据库
+ */
+public class ReservedConnectionTableGenerator extends TableGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object obj) {
+        return ReservedConnectionProvider.prefetch(() -> super.generate(session, obj));
+    }
+}
@@ -0,0 +1,19 @@
+package com.yiyunnetwork.order.util;
+
+import java.util.Date;
+
+/**
+ * 已验签的JWT令牌，每个请求只解析和验签一次
+ *
+ * @param username   令牌主体（用户名）
+ * @param expiration 过期时间
+ */
+public record VerifiedJwt(String username, Date expiration) {
+
+    /**
+     * 是否已过期
+     */
+    public boolean isExpired() {
+        return expiration.before(new Date());
+    }
+}
@@ -0,0 +1,118 @@
+-- 基线表结构
+-- 与此前由 ddl-auto: update 生成的结构一致；已有数据库通过 baseline-on-migrate 跳过本脚本
+
+CREATE TABLE roles (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    name        VARCHAR(255) NOT NULL,
+    description VARCHAR(200),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_roles_name UNIQUE (name)
+);
+
+CREATE TABLE users (
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    username        VARCHAR(50)  NOT NULL,
+    password        VARCHAR(255) NOT NULL,
+    email           VARCHAR(100) NOT NULL,
+    real_name       VARCHAR(255),
+    phone           VARCHAR(255),
+    enabled         BIT,
+    create_time     DATETIME(6),
+    last_login_time DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE user_roles (
+    user_id BIGINT NOT NULL,
+    role_id BIGINT NOT NULL,
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_roles_role FOREIGN KEY (role_id) REFERENCES roles (id)
+);
+
+CREATE TABLE products (
+    id          BIGINT         NOT NULL AUTO_INCREMENT,
+    name        VARCHAR(100)   NOT NULL,
+    description VARCHAR(500),
+    price       DECIMAL(10, 2) NOT NULL,
+    enabled     BIT            NOT NULL,
+    image_url   VARCHAR(255),
+    create_time DATETIME(6),
+    update_time DATETIME(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE product_fields (
+    id                 BIGINT       NOT NULL AUTO_INCREMENT,
+    product_id         BIGINT       NOT NULL,
+    name               VARCHAR(50)  NOT NULL,
+    field_key          VARCHAR(50)  NOT NULL,
+    field_type         ENUM ('TEXT','NUMBER','RADIO','CHECKBOX') NOT NULL,
+    required           BIT          NOT NULL,
+    validation_rule    VARCHAR(500),
+    validation_message VARCHAR(500),
+    placeholder        VARCHAR(200),
+    options            VARCHAR(5000),
+    display_order      INT          NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_product_fields_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+CREATE TABLE orders (
+    id             BINARY(16)     NOT NULL,
+    order_no       VARCHAR(20)    NOT NULL,
+    product_id     BIGINT         NOT NULL,
+    customer_email VARCHAR(100)   NOT NULL,
+    customer_phone VARCHAR(20),
+    total_amount   DECIMAL(10, 2),
+    status         ENUM ('PENDING_AGENT_REVIEW','PENDING_ADMIN_REVIEW','IN_PROGRESS','COMPLETED','REJECTED','CANCELLED') NOT NULL,
+    access_token   VARCHAR(255),
+    create_time    DATETIME(6),
+    update_time    DATETIME(6),
+    complete_time  DATETIME(6),
+    agent_id       BIGINT,
+    admin_id       BIGINT,
+    remark         VARCHAR(500),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_orders_order_no UNIQUE (order_no),
+    CONSTRAINT fk_orders_product FOREIGN KEY (product_id) REFERENCES products (id),
+    CONSTRAINT fk_orders_agent FOREIGN KEY (agent_id) REFERENCES users (id),
+    CONSTRAINT fk_orders_admin FOREIGN KEY (admin_id) REFERENCES users (id)
+);
+
+CREATE TABLE order_fields (
+    id          BIGINT      NOT NULL AUTO_INCREMENT,
+    order_id    BINARY(16)  NOT NULL,
+    field_key   VARCHAR(50) NOT NULL,
+    field_type  ENUM ('TEXT','NUMBER','RADIO','CHECKBOX') NOT NULL,
+    field_value VARCHAR(5000),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_order_fields_order FOREIGN KEY (order_id) REFERENCES orders (id)
+);
+
+CREATE TABLE order_logs (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    order_id       BINARY(16)   NOT NULL,
+    operator_id    BIGINT,
+    operator_name  VARCHAR(100),
+    operator_email VARCHAR(100),
+    from_status    ENUM ('PENDING_AGENT_REVIEW','PENDING_ADMIN_REVIEW','IN_PROGRESS','COMPLETED','REJECTED','CANCELLED'),
+    to_status      ENUM ('PENDING_AGENT_REVIEW','PENDING_ADMIN_REVIEW','IN_PROGRESS','COMPLETED','REJECTED','CANCELLED') NOT NULL,
+    operate_time   DATETIME(6)  NOT NULL,
+    remark         VARCHAR(500),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_order_logs_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_order_logs_operator FOREIGN KEY (operator_id) REFERENCES users (id)
+);
+
+CREATE TABLE verification_codes (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    email       VARCHAR(100) NOT NULL,
+    code        VARCHAR(10)  NOT NULL,
+    expire_time DATETIME(6)  NOT NULL,
+    create_time DATETIME(6)  NOT NULL,
+    used_time   DATETIME(6),
+    used        BIT          NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,24 @@
+-- 订单查询路径的复合索引
+-- 每个索引都以 (create_time, id) 结尾，列表排序与游标分页可直接走索引而无需额外排序
+
+-- 管理端全部订单列表 / 游标分页
+CREATE INDEX idx_orders_create_time ON orders (create_time DESC, id DESC);
+
+-- 按状态筛选
+CREATE INDEX idx_orders_status_create_time ON orders (status, create_time DESC, id DESC);
+
+-- 代理查看自己负责的订单（全部 / 按状态）
+CREATE INDEX idx_orders_agent_create_time ON orders (agent_id, create_time DESC, id DESC);
+CREATE INDEX idx_orders_agent_status ON orders (agent_id, status, create_time DESC, id DESC);
+
+-- 超管查看自己处理的订单
+CREATE INDEX idx_orders_admin_status ON orders (admin_id, status, create_time DESC, id DESC);
+
+-- 客户按邮箱查看订单
+CREATE INDEX idx_orders_customer_email_create_time ON orders (customer_email, create_time DESC, id DESC);
+
+-- 订单日志按时间倒序
+CREATE INDEX idx_order_logs_order_operate_time ON order_logs (order_id, operate_time DESC);
+
+-- 订单字段按订单和字段标识查找
+CREATE INDEX idx_order_fields_order_field_key ON order_fields (order_id, field_key);
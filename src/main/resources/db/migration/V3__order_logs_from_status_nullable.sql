@@ -0,0 +1,2 @@
+-- 订单创建日志没有原状态，from_status 需允许为空
+ALTER TABLE order_logs MODIFY from_status ENUM ('PENDING_AGENT_REVIEW','PENDING_ADMIN_REVIEW','IN_PROGRESS','COMPLETED','REJECTED','CANCELLED') NULL;
@@ -0,0 +1,16 @@
+-- 邮件发件箱：与订单变更在同一事务中写入，由调度器批量投递
+CREATE TABLE email_outbox (
+    id                BIGINT        NOT NULL AUTO_INCREMENT,
+    recipient         VARCHAR(100)  NOT NULL,
+    subject           VARCHAR(255)  NOT NULL,
+    content           TEXT          NOT NULL,
+    status            ENUM ('PENDING','SENT','FAILED') NOT NULL,
+    attempts          INT           NOT NULL,
+    next_attempt_time DATETIME(6)   NOT NULL,
+    last_error        VARCHAR(1000),
+    create_time       DATETIME(6)   NOT NULL,
+    sent_time         DATETIME(6),
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_email_outbox_status_next_attempt ON email_outbox (status, next_attempt_time);
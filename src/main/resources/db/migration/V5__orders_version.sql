@@ -0,0 +1,2 @@
+-- 订单乐观锁版本号，状态变更以 id + 原状态 + 版本号为条件更新
+ALTER TABLE orders ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
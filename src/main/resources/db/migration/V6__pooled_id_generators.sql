@@ -0,0 +1,13 @@
+-- 批量写入的表改用表生成器分配主键（每次预取50个，pooled 优化器），以便 Hibernate 按 JDBC 批量插入
+-- next_val 为已分配区间的上界，初始值从现有最大主键之后开始，原有自增列保留但不再使用
+CREATE TABLE id_generators (
+    sequence_name VARCHAR(64) NOT NULL,
+    next_val      BIGINT      NOT NULL,
+    PRIMARY KEY (sequence_name)
+);
+
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'order_fields', COALESCE(MAX(id), 0) + 51 FROM order_fields;
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'order_logs', COALESCE(MAX(id), 0) + 51 FROM order_logs;
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'product_fields', COALESCE(MAX(id), 0) + 51 FROM product_fields;
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'verification_codes', COALESCE(MAX(id), 0) + 51 FROM verification_codes;
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'email_outbox', COALESCE(MAX(id), 0) + 51 FROM email_outbox;
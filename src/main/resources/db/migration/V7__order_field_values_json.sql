@@ -0,0 +1,5 @@
+-- JSON 存储模式：订单字段值整体存为一列，历史订单由应用按批从 order_fields 迁移
+ALTER TABLE orders ADD COLUMN field_values JSON NULL;
+
+-- 可搜索字段：JSON 存储模式下由应用在订单表上建立生成列 sf_<字段标识> 及索引
+ALTER TABLE product_fields ADD COLUMN searchable BIT NOT NULL DEFAULT 0;
@@ -0,0 +1,7 @@
+-- 释放租约：仍由 ARGV[1] 持有时才删除
+-- KEYS[1] 租约；ARGV[1] 持有者标识
+-- 返回删除的键数
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
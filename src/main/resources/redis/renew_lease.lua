@@ -0,0 +1,7 @@
+-- 续期租约：仍由 ARGV[1] 持有时才延长有效期，避免延长其他节点刚租到的同名租约
+-- KEYS[1] 租约；ARGV[1] 持有者标识；ARGV[2] 有效期毫秒数
+-- 返回 1 续期成功，0 租约已不属于该持有者
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+end
+return 0
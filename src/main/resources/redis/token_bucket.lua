@@ -0,0 +1,42 @@
+-- 令牌桶：按经过的时间补充令牌后一次取出最多 ARGV[3] 个；ARGV[3] 为负数时归还令牌，不超过容量
+-- KEYS[1] 桶；ARGV[1] 容量；ARGV[2] 恢复满额所需毫秒数；ARGV[3] 请求的令牌数
+-- 返回 {取得的令牌数, 未取得时下一个令牌的等待毫秒数}
+-- 需要 Redis 5 及以上版本：脚本先调用 TIME 再写入，依赖 Redis 5 起默认的脚本效果复制，
+-- 更早的版本按脚本原文复制，会拒绝在非确定性命令之后写入
+local capacity = tonumber(ARGV[1])
+local period = tonumber(ARGV[2])
+local requested = tonumber(ARGV[3])
+
+-- 使用 Redis 服务器时间，避免各节点时钟不一致
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+local tokens = tonumber(bucket[1])
+local ts = tonumber(bucket[2])
+if tokens == nil or ts == nil then
+    tokens = capacity
+    ts = now
+end
+if now > ts then
+    tokens = math.min(capacity, tokens + (now - ts) * capacity / period)
+    ts = now
+end
+
+local granted = 0
+if requested < 0 then
+    -- 节点归还未用完的租用令牌
+    tokens = math.min(capacity, tokens - requested)
+else
+    granted = math.min(requested, math.floor(tokens))
+    tokens = tokens - granted
+end
+redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(ts))
+-- 超过恢复周期未访问的桶已恢复满额，直接过期
+redis.call('PEXPIRE', KEYS[1], period)
+
+local wait = 0
+if granted == 0 and requested > 0 then
+    wait = math.ceil((1 - tokens) * period / capacity)
+end
+return {granted, wait}
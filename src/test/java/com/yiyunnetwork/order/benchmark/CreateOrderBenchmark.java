@@ -0,0 +1,95 @@
+package com.yiyunnetwork.order.benchmark;
+
+import com.yiyunnetwork.order.dto.order.OrderCreateDTO;
+import com.yiyunnetwork.order.model.Product;
+import com.yiyunnetwork.order.service.OrderService;
+import com.yiyunnetwork.order.support.OrderFixtures;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 创建订单压测：30个字段的商品，统计每个订单的耗时和预编译语句数
+ * <p>
+ * 不随 test 任务运行，在改动前后的提交上分别执行后比较输出：
+ * <pre>
+ * ./gradlew benchmark --tests '*CreateOrderBenchmark'
+ * </pre>
+ * 可通过 -Dbenchmark.requests 调整创建的订单数。测试库为H2，对比MySQL时请改用开发库配置
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(OrderFixtures.class)
+class CreateOrderBenchmark {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 2000);
+    private static final int FIELDS = 30;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrderFixtures fixtures;
+
+    private Product product;
+
+    private final Map<String, String> values = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        Map<String, String> fieldNames = new LinkedHashMap<>();
+        for (int i = 0; i < FIELDS; i++) {
+            fieldNames.put("field" + i, "字段" + i);
+            values.put("field" + i, "value" + i);
+        }
+        product = fixtures.saveProduct("压测商品", fieldNames);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteAll();
+    }
+
+    @Test
+    void createOrder() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // 预热
+        create(Math.min(REQUESTS, 200));
+
+        statistics.clear();
+        long start = System.nanoTime();
+        create(REQUESTS);
+        double millis = (System.nanoTime() - start) / 1e6;
+
+        System.out.printf("%n创建订单（%d个字段）× %d  平均耗时：%6.3f ms  平均预编译语句数：%5.1f%n",
+                FIELDS, REQUESTS, millis / REQUESTS,
+                (double) statistics.getPrepareStatementCount() / REQUESTS);
+    }
+
+    private void create(int requests) {
+        for (int i = 0; i < requests; i++) {
+            orderService.createOrder(OrderCreateDTO.builder()
+                    .productId(product.getId())
+                    .customerEmail("bench" + i + "@example.com")
+                    .fields(values)
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.yiyunnetwork.order.benchmark;
+
+import com.yiyunnetwork.order.util.TimeOrderedUuidGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * 主键写入压测：以 BINARY(16) 为主键分别写入随机 UUID 与按时间排序的 UUID，比较写入吞吐量
+ * <pre>
+ * ./gradlew benchmark --tests '*OrderIdInsertBenchmark'
+ * </pre>
+ * 可通过 -Dbenchmark.requests 调整写入行数。测试库为H2，索引页分裂的差异需使用开发库（MySQL/InnoDB）配置，
+ * 并在行数远大于缓冲池可容纳的量时才明显
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderIdInsertBenchmark {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 200000);
+    private static final int BATCH_SIZE = 500;
+    private static final String TABLE = "benchmark_order_ids";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + TABLE);
+    }
+
+    @Test
+    void compareRandomAndTimeOrderedKeys() {
+        report("random", insert(UUID::randomUUID));
+        report("ordered", insert(TimeOrderedUuidGenerator::next));
+    }
+
+    private long insert(Supplier<UUID> ids) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + TABLE);
+        // 与 orders 表接近的行宽
+        jdbcTemplate.execute("CREATE TABLE " + TABLE + " (id BINARY(16) NOT NULL, payload VARCHAR(255) NOT NULL, "
+                + "PRIMARY KEY (id))");
+
+        String payload = "x".repeat(200);
+        long begin = System.nanoTime();
+        for (int inserted = 0; inserted < REQUESTS; inserted += BATCH_SIZE) {
+            List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE && inserted + i < REQUESTS; i++) {
+                rows.add(new Object[]{toBytes(ids.get()), payload});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO " + TABLE + " (id, payload) VALUES (?, ?)", rows);
+        }
+        return System.nanoTime() - begin;
+    }
+
+    private void report(String name, long nanos) {
+        System.out.printf("%-8s rows=%d elapsed=%dms throughput=%.0f rows/s%n",
+                name, REQUESTS, nanos / 1_000_000, REQUESTS * 1_000_000_000.0 / nanos);
+    }
+
+    private static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+}
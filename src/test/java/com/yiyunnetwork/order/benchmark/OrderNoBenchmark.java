@@ -0,0 +1,91 @@
+package com.yiyunnetwork.order.benchmark;
+
+import com.yiyunnetwork.order.util.OrderNoGenerator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * 订单号生成压测：多线程下比较原实现（格式化器 + 共享 Random）与 OrderNoGenerator 的吞吐量和重复数
+ * <pre>
+ * ./gradlew benchmark --tests '*OrderNoBenchmark'
+ * </pre>
+ * 可通过 -Dbenchmark.requests 调整每个线程的生成数，-Dbenchmark.concurrency 调整线程数
+ */
+@Tag("benchmark")
+class OrderNoBenchmark {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 200000);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 8);
+    private static final int WARMUP_ROUNDS = 3;
+
+    private static final Random RANDOM = new Random();
+    private static final DateTimeFormatter ORDER_NO_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    @Test
+    void compareGenerators() throws Exception {
+        OrderNoGenerator generator = new OrderNoGenerator(1);
+        Supplier<String> legacy = () -> LocalDateTime.now().format(ORDER_NO_FORMATTER)
+                + String.format("%06d", RANDOM.nextInt(1000000));
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run(legacy, false);
+            run(generator::next, false);
+        }
+        report("legacy", run(legacy, true));
+        report("generator", run(generator::next, true));
+    }
+
+    private Result run(Supplier<String> supplier, boolean checkDuplicates) throws Exception {
+        Set<String> seen = checkDuplicates ? ConcurrentHashMap.newKeySet() : null;
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < CONCURRENCY; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    int duplicates = 0;
+                    for (int i = 0; i < REQUESTS; i++) {
+                        String orderNo = supplier.get();
+                        if (seen != null && !seen.add(orderNo)) {
+                            duplicates++;
+                        }
+                    }
+                    return duplicates;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            int duplicates = 0;
+            for (Future<Integer> future : futures) {
+                duplicates += future.get();
+            }
+            return new Result(System.nanoTime() - begin, duplicates);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void report(String name, Result result) {
+        long total = (long) REQUESTS * CONCURRENCY;
+        System.out.printf("%-10s threads=%d total=%d elapsed=%dms throughput=%.0f/s duplicates=%d%n",
+                name, CONCURRENCY, total, result.nanos / 1_000_000,
+                total * 1_000_000_000.0 / result.nanos, result.duplicates);
+    }
+
+    private record Result(long nanos, int duplicates) {
+    }
+}
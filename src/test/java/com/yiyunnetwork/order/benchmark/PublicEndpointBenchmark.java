@@ -0,0 +1,144 @@
+package com.yiyunnetwork.order.benchmark;
+
+import com.yiyunnetwork.order.model.Order;
+import com.yiyunnetwork.order.model.Product;
+import com.yiyunnetwork.order.model.enums.OrderStatus;
+import com.yiyunnetwork.order.support.OrderFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 公开接口压测：对比平台线程与虚拟线程两种模式的吞吐量和 p99 延迟
+ * <p>
+ * 不随 test 任务运行，使用以下命令分别执行后比较输出：
+ * <pre>
+ * ./gradlew benchmark
+ * ./gradlew -PjavaVersion=21 benchmark -PvirtualThreads=true
+ * </pre>
+ * 可通过 -Dbenchmark.requests / -Dbenchmark.concurrency 调整请求总数和并发数
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@Import(OrderFixtures.class)
+class PublicEndpointBenchmark {
+
+    private static final boolean VIRTUAL_THREADS = Boolean.getBoolean("benchmark.virtual-threads");
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20000);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 500);
+    private static final int ORDERS = 100;
+
+    @DynamicPropertySource
+    static void mode(DynamicPropertyRegistry registry) {
+        registry.add("spring.threads.virtual.enabled", () -> VIRTUAL_THREADS);
+        registry.add("datasource.guard.enabled", () -> VIRTUAL_THREADS);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private OrderFixtures fixtures;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private Product product;
+
+    private final List<Order> orders = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        product = fixtures.saveProduct("压测商品");
+        for (int i = 0; i < ORDERS; i++) {
+            orders.add(fixtures.saveOrder(product, String.format("B%019d", i), OrderStatus.PENDING_AGENT_REVIEW));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteAll();
+        orders.clear();
+    }
+
+    @Test
+    void publicEndpoints() throws Exception {
+        String mode = VIRTUAL_THREADS ? "virtual" : "platform";
+        System.out.printf("%n模式：%s，请求数：%d，并发数：%d%n", mode, REQUESTS, CONCURRENCY);
+
+        run("GET /api/orders/public/{id}", i -> {
+            Order order = orders.get(i % ORDERS);
+            return "/api/orders/public/" + order.getId() + "?token=" + order.getAccessToken();
+        });
+        run("GET /api/products/public/{id}", i -> "/api/products/public/" + product.getId());
+    }
+
+    private void run(String name, IntFunction<String> path) throws Exception {
+        // 预热
+        measure(path, Math.min(REQUESTS, 2000));
+
+        long start = System.nanoTime();
+        long[] latencies = measure(path, REQUESTS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Arrays.sort(latencies);
+        System.out.printf("%-32s 吞吐量：%8.0f req/s  p50：%6.2f ms  p99：%6.2f ms%n",
+                name,
+                REQUESTS / seconds,
+                latencies[(int) (latencies.length * 0.50)] / 1e6,
+                latencies[(int) (latencies.length * 0.99)] / 1e6);
+    }
+
+    private long[] measure(IntFunction<String> path, int requests) throws Exception {
+        long[] latencies = new long[requests];
+        AtomicInteger failures = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[requests];
+
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int index = i;
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path.apply(i)))
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+            long sent = System.nanoTime();
+            futures[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        if (error != null || response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                        inFlight.release();
+                    });
+        }
+        CompletableFuture.allOf(futures).exceptionally(e -> null).join();
+
+        assertThat(failures.get()).as("失败请求数").isZero();
+        return latencies;
+    }
+}
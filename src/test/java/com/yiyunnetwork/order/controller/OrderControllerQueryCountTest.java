@@ -0,0 +1,159 @@
+package com.yiyunnetwork.order.controller;
+
+import com.yiyunnetwork.order.model.Order;
+import com.yiyunnetwork.order.model.OrderField;
+import com.yiyunnetwork.order.model.OrderLog;
+import com.yiyunnetwork.order.model.Product;
+import com.yiyunnetwork.order.model.User;
+import com.yiyunnetwork.order.model.enums.FieldType;
+import com.yiyunnetwork.order.model.enums.OrderStatus;
+import com.yiyunnetwork.order.repository.OrderFieldRepository;
+import com.yiyunnetwork.order.repository.OrderLogRepository;
+import com.yiyunnetwork.order.repository.OrderRepository;
+import com.yiyunnetwork.order.repository.UserRepository;
+import com.yiyunnetwork.order.support.OrderFixtures;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 订单列表与详情接口的SQL次数断言：查询次数不能随页大小增长
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(username = "admin", roles = "ADMIN")
+@Import(OrderFixtures.class)
+class OrderControllerQueryCountTest {
+
+    private static final int FIELDS_PER_ORDER = 5;
+    private static final int LOGS_PER_ORDER = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrderFixtures fixtures;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderFieldRepository orderFieldRepository;
+
+    @Autowired
+    private OrderLogRepository orderLogRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Statistics statistics;
+
+    private final List<UUID> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Product product = fixtures.saveProduct("测试商品");
+        User admin = userRepository.findByUsername("admin").orElseThrow();
+
+        for (int i = 0; i < 20; i++) {
+            Order order = orderRepository.save(fixtures.order(product, String.format("Q%019d", i))
+                    .status(OrderStatus.PENDING_ADMIN_REVIEW)
+                    .agent(admin)
+                    .build());
+            orderIds.add(order.getId());
+
+            List<OrderField> fields = new ArrayList<>();
+            for (int f = 0; f < FIELDS_PER_ORDER; f++) {
+                fields.add(OrderField.builder()
+                        .order(order)
+                        .fieldKey("field" + f)
+                        .fieldType(FieldType.TEXT)
+                        .fieldValue("value" + f)
+                        .build());
+            }
+            orderFieldRepository.saveAll(fields);
+
+            List<OrderLog> logs = new ArrayList<>();
+            for (int l = 0; l < LOGS_PER_ORDER; l++) {
+                logs.add(OrderLog.builder()
+                        .order(order)
+                        .operator(admin)
+                        .operatorName(admin.getUsername())
+                        .fromStatus(OrderStatus.PENDING_AGENT_REVIEW)
+                        .toStatus(OrderStatus.PENDING_ADMIN_REVIEW)
+                        .build());
+            }
+            orderLogRepository.saveAll(logs);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteAll();
+        orderIds.clear();
+    }
+
+    @Test
+    void adminListQueryCountDoesNotGrowWithPageSize() throws Exception {
+        long smallPage = countStatements(() -> mockMvc.perform(get("/api/orders/admin").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content.length()").value(5)));
+
+        long fullPage = countStatements(() -> mockMvc.perform(get("/api/orders/admin").param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content.length()").value(20))
+                .andExpect(jsonPath("$.data.content[0].productName").value("测试商品"))
+                .andExpect(jsonPath("$.data.content[0].fields").doesNotExist()));
+
+        assertThat(fullPage).isEqualTo(smallPage);
+        // 当前用户及角色 + 列表行投影 + 总数
+        assertThat(fullPage).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void adminDetailUsesFixedNumberOfQueries() throws Exception {
+        long statements = countStatements(() -> mockMvc.perform(get("/api/orders/admin/{id}", orderIds.get(0)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.fields.length()").value(FIELDS_PER_ORDER))
+                .andExpect(jsonPath("$.data.logs.length()").value(LOGS_PER_ORDER)));
+
+        // 订单版本（条件请求）+ 订单详情（含商品、代理、超管、字段）+ 当前用户及角色 + 日志
+        assertThat(statements).isLessThanOrEqualTo(6);
+    }
+
+    private long countStatements(ThrowingRunnable action) throws Exception {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,175 @@
+package com.yiyunnetwork.order.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yiyunnetwork.order.config.RateLimitFilter;
+import com.yiyunnetwork.order.service.RateLimitService;
+import com.yiyunnetwork.order.service.RateLimitService.Decision;
+import com.yiyunnetwork.order.service.RateLimitService.Route;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 公开接口限流：每个IP、每个邮箱各自计数，超限返回 429 和 Retry-After
+ */
+@SpringBootTest(properties = {
+        "rate-limit.order.capacity=1",
+        "rate-limit.order.period=3600",
+        "rate-limit.max-body-size=1024"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RateLimitFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void limitsOrderCreationPerIpAndPerEmail() throws Exception {
+        createOrder("10.0.0.1", "first@example.com")
+                .andExpect(result -> assertThat(result.getResponse().getStatus()).isNotEqualTo(429));
+
+        // 同一IP
+        createOrder("10.0.0.1", "second@example.com")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.code").value(429));
+
+        // 同一邮箱，大小写不同
+        createOrder("10.0.0.2", "First@Example.com")
+                .andExpect(status().isTooManyRequests());
+
+        createOrder("10.0.0.3", "third@example.com")
+                .andExpect(result -> assertThat(result.getResponse().getStatus()).isNotEqualTo(429));
+    }
+
+    @Test
+    void rejectsOversizedOrderBody() throws Exception {
+        String padding = "x".repeat(2048);
+        mockMvc.perform(post("/api/orders/public")
+                        .with(request -> {
+                            request.setRemoteAddr("10.0.0.9");
+                            return request;
+                        })
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\": 999999, \"customerEmail\": \"big@example.com\", "
+                                + "\"fields\": {\"note\": \"" + padding + "\"}}"))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.code").value(413));
+    }
+
+    @Test
+    void readsBodyWithoutContentLengthAndReplaysIt() throws Exception {
+        RateLimitService rateLimitService = mock(RateLimitService.class);
+        when(rateLimitService.tryConsume(any(), anyString())).thenReturn(Decision.ALLOWED);
+        RateLimitFilter filter = new RateLimitFilter(rateLimitService, new ObjectMapper());
+        ReflectionTestUtils.setField(filter, "maxBodySize", 1024);
+
+        String body = "{\"customerEmail\": \"Chunked@Example.com\"}";
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(chunkedOrderRequest(body), new MockHttpServletResponse(), chain);
+
+        verify(rateLimitService).tryConsume(Route.ORDER, "email:chunked@example.com");
+        // 后续处理以非阻塞方式读取缓存的请求体
+        ServletInputStream input = ((HttpServletRequest) chain.getRequest()).getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        List<String> events = new ArrayList<>();
+        input.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                events.add("data");
+                byte[] buffer = new byte[8];
+                int n;
+                while (input.isReady() && (n = input.read(buffer)) != -1) {
+                    read.write(buffer, 0, n);
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                events.add("done");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                events.add("error");
+            }
+        });
+        assertThat(events).containsExactly("data", "done");
+        assertThat(read.toString(StandardCharsets.UTF_8)).isEqualTo(body);
+    }
+
+    @Test
+    void rejectsOversizedBodyWithoutContentLength() throws Exception {
+        RateLimitService rateLimitService = mock(RateLimitService.class);
+        when(rateLimitService.tryConsume(any(), anyString())).thenReturn(Decision.ALLOWED);
+        RateLimitFilter filter = new RateLimitFilter(rateLimitService, new ObjectMapper());
+        ReflectionTestUtils.setField(filter, "maxBodySize", 1024);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(chunkedOrderRequest("x".repeat(4096)), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(413);
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    private ResultActions createOrder(String ip, String email) throws Exception {
+        return mockMvc.perform(post("/api/orders/public")
+                .with(request -> {
+                    request.setRemoteAddr(ip);
+                    return request;
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"productId\": 999999, \"customerEmail\": \"" + email + "\", \"fields\": {}}"));
+    }
+
+    /**
+     * 分块传输的请求：未声明 Content-Length
+     */
+    private static MockHttpServletRequest chunkedOrderRequest(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/orders/public") {
+            @Override
+            public int getContentLength() {
+                return -1;
+            }
+
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
@@ -0,0 +1,84 @@
+package com.yiyunnetwork.order.repository;
+
+import com.yiyunnetwork.order.model.VerificationCode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 连接池占满时表生成器预取主键：每个事务先占用一个连接，再写入超过预取区间的行，
+ * 预取在另一个连接上执行，需由专用连接池满足，不能等到应用连接池超时（未开启 datasource.guard）
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.maximum-pool-size=3",
+        "spring.datasource.hikari.connection-timeout=5000",
+        "datasource.id-generator.pool-size=1"
+})
+@ActiveProfiles("test")
+class IdGeneratorPoolLimitTest {
+
+    private static final int WRITERS = 8;
+    // 超过两个预取区间（allocationSize = 50），每个事务至少预取两次
+    private static final int ROWS_PER_WRITER = 120;
+
+    @Autowired
+    private VerificationCodeRepository verificationCodeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        verificationCodeRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void idPrefetchDoesNotStarveWhenPoolIsSaturated() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Future<List<Long>>> results = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                String email = "writer" + w + "@example.com";
+                results.add(executor.submit(() -> transactionTemplate.execute(status -> {
+                    // 先占用事务连接
+                    verificationCodeRepository.count();
+                    List<VerificationCode> codes = new ArrayList<>();
+                    for (int i = 0; i < ROWS_PER_WRITER; i++) {
+                        codes.add(VerificationCode.builder()
+                                .email(email)
+                                .code(String.valueOf(i))
+                                .expireTime(LocalDateTime.now().plusMinutes(10))
+                                .build());
+                    }
+                    return verificationCodeRepository.saveAllAndFlush(codes).stream()
+                            .map(VerificationCode::getId)
+                            .toList();
+                })));
+            }
+
+            Set<Long> ids = new HashSet<>();
+            for (Future<List<Long>> result : results) {
+                ids.addAll(result.get(60, TimeUnit.SECONDS));
+            }
+            assertThat(ids).hasSize(WRITERS * ROWS_PER_WRITER);
+            assertThat(verificationCodeRepository.count()).isEqualTo(WRITERS * ROWS_PER_WRITER);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
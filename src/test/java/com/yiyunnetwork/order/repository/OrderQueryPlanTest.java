@@ -0,0 +1,225 @@
+package com.yiyunnetwork.order.repository;
+
+import com.yiyunnetwork.order.model.Order;
+import com.yiyunnetwork.order.model.Product;
+import com.yiyunnetwork.order.model.User;
+import com.yiyunnetwork.order.model.enums.OrderStatus;
+import com.yiyunnetwork.order.support.OrderFixtures;
+import com.yiyunnetwork.order.support.StatementRecorder;
+import com.yiyunnetwork.order.support.StatementRecorder.Statement;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 调用 OrderRepository / OrderLogRepository / OrderFieldRepository 的每个查询方法，
+ * 记录 Hibernate 实际发出的语句（含实体图关联和分页总数查询），按相同的参数执行 EXPLAIN，出现全表扫描即失败。
+ * 表结构来自 Flyway 迁移脚本。
+ * <p>
+ * 未覆盖的查询：
+ * findByOrderNoContainingOrCustomerEmailContaining（前置通配 LIKE 无法使用B树索引）；
+ * 不带条件的 count 查询（如分页列表的总数）允许全表扫描。
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(OrderFixtures.class)
+class OrderQueryPlanTest {
+
+    // 页号大于 0 且结果为空时 Spring Data 才执行总数查询
+    private static final Pageable PAGE = PageRequest.of(5, 10, Sort.by(Sort.Direction.DESC, "createTime"));
+    private static final Pageable SCROLL = PageRequest.of(0, 11);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderLogRepository orderLogRepository;
+
+    @Autowired
+    private OrderFieldRepository orderFieldRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderFixtures fixtures;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Order order;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        Product product = fixtures.saveProduct("测试商品");
+        order = fixtures.saveOrder(product, "P0000000000000000001", OrderStatus.PENDING_AGENT_REVIEW);
+        user = userRepository.findByUsername("admin").orElseThrow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteAll();
+    }
+
+    @Test
+    void everyFinderUsesAnIndex() {
+        UUID id = order.getId();
+        String token = order.getAccessToken();
+        String email = order.getCustomerEmail();
+        OrderStatus status = OrderStatus.PENDING_AGENT_REVIEW;
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> ids = List.of(id, UUID.randomUUID());
+
+        Map<String, Runnable> finders = new LinkedHashMap<>();
+
+        // OrderRepository
+        finders.put("findById", () -> orderRepository.findById(id));
+        finders.put("findAll(Pageable)", () -> orderRepository.findAll(PAGE));
+        finders.put("findDetailById", () -> orderRepository.findDetailById(id));
+        finders.put("findByIdAndAccessToken", () -> orderRepository.findByIdAndAccessToken(id, token));
+        finders.put("findWithoutFieldsById", () -> orderRepository.findWithoutFieldsById(id));
+        finders.put("findWithoutFieldsByIdAndAccessToken",
+                () -> orderRepository.findWithoutFieldsByIdAndAccessToken(id, token));
+        finders.put("findIdsWithoutFieldValues",
+                () -> orderRepository.findIdsWithoutFieldValues(new UUID(0, 0), PageRequest.of(0, 10)));
+        finders.put("updateFieldValues", () -> orderRepository.updateFieldValues(id, Map.of("name", "value")));
+        finders.put("findByOrderNo", () -> orderRepository.findByOrderNo(order.getOrderNo()));
+        finders.put("findMaxOrderNo", () -> orderRepository.findMaxOrderNo());
+        finders.put("findByStatus", () -> orderRepository.findByStatus(status));
+        finders.put("findByCustomerEmail", () -> orderRepository.findByCustomerEmail(email));
+        finders.put("findByCustomerEmail(Pageable)", () -> orderRepository.findByCustomerEmail(email, PAGE));
+        finders.put("findByStatus(Pageable)", () -> orderRepository.findByStatus(status, PAGE));
+        finders.put("findByAgent", () -> orderRepository.findByAgent(user, PAGE));
+        finders.put("findByAgentAndStatus", () -> orderRepository.findByAgentAndStatus(user, status, PAGE));
+        finders.put("findByAdmin", () -> orderRepository.findByAdmin(user, PAGE));
+        finders.put("findByAdminAndStatus", () -> orderRepository.findByAdminAndStatus(user, status, PAGE));
+        finders.put("findListRows", () -> orderRepository.findListRows(PAGE));
+        finders.put("findListRowsByStatus", () -> orderRepository.findListRowsByStatus(status, PAGE));
+        finders.put("findListRowsByAgent", () -> orderRepository.findListRowsByAgent(user, PAGE));
+        finders.put("findListRowsByAgentAndStatus",
+                () -> orderRepository.findListRowsByAgentAndStatus(user, status, PAGE));
+        finders.put("findListRowsByIdIn", () -> orderRepository.findListRowsByIdIn(ids));
+        finders.put("findVersionById", () -> orderRepository.findVersionById(id));
+        finders.put("findVersionByIdAndAccessToken", () -> orderRepository.findVersionByIdAndAccessToken(id, token));
+        finders.put("transitionStatus", () -> orderRepository.transitionStatus(id, status, 0L,
+                OrderStatus.REJECTED, "备注", user, null, now, null));
+        finders.put("bulkTransitionStatus", () -> orderRepository.bulkTransitionStatus(ids, status, 0L,
+                OrderStatus.REJECTED, "备注", now));
+        finders.put("bulkTransitionStatusAssigningAgent", () -> orderRepository.bulkTransitionStatusAssigningAgent(
+                ids, status, 0L, OrderStatus.PENDING_ADMIN_REVIEW, "备注", now, user));
+        finders.put("bulkTransitionStatusAssigningAdmin", () -> orderRepository.bulkTransitionStatusAssigningAdmin(
+                ids, OrderStatus.PENDING_ADMIN_REVIEW, 0L, OrderStatus.IN_PROGRESS, "备注", now, user));
+        finders.put("findAllByIdForUpdate", () -> orderRepository.findAllByIdForUpdate(ids));
+        finders.put("scrollListRows", () -> orderRepository.scrollListRows(now, id, SCROLL));
+        finders.put("scrollListRowsByStatus", () -> orderRepository.scrollListRowsByStatus(status, now, id, SCROLL));
+        finders.put("scrollListRowsByAgent", () -> orderRepository.scrollListRowsByAgent(user, now, id, SCROLL));
+        finders.put("scrollListRowsByAgentAndStatus",
+                () -> orderRepository.scrollListRowsByAgentAndStatus(user, status, now, id, SCROLL));
+        finders.put("scrollByCustomerEmail", () -> orderRepository.scrollByCustomerEmail(email, now, id, SCROLL));
+        finders.put("countByStatus", () -> orderRepository.countByStatus(status));
+        finders.put("countByAgent", () -> orderRepository.countByAgent(user));
+        finders.put("countByAgentAndStatus", () -> orderRepository.countByAgentAndStatus(user, status));
+        finders.put("countByCustomerEmail", () -> orderRepository.countByCustomerEmail(email));
+
+        // OrderLogRepository
+        finders.put("findByOrderOrderByOperateTimeDesc",
+                () -> orderLogRepository.findByOrderOrderByOperateTimeDesc(order));
+        finders.put("findByOrderOrderByOperateTimeDesc(Pageable)",
+                () -> orderLogRepository.findByOrderOrderByOperateTimeDesc(order, PageRequest.of(5, 10)));
+
+        // OrderFieldRepository
+        finders.put("findByOrder", () -> orderFieldRepository.findByOrder(order));
+        finders.put("findByOrderAndFieldKey", () -> orderFieldRepository.findByOrderAndFieldKey(order, "name"));
+        finders.put("findByOrderIdIn", () -> orderFieldRepository.findByOrderIdIn(ids));
+        finders.put("deleteByOrder", () -> orderFieldRepository.deleteByOrder(order));
+
+        List<String> fullScans = new ArrayList<>();
+        finders.forEach((finder, call) -> {
+            List<Statement> statements = StatementRecorder.record(() -> transactionTemplate.executeWithoutResult(tx -> {
+                call.run();
+                // 写操作不保留
+                tx.setRollbackOnly();
+            }));
+            assertThat(statements).as("%s 未发出语句", finder).isNotEmpty();
+            for (Statement statement : statements) {
+                if (isUnconditionalCount(statement.sql())) {
+                    continue;
+                }
+                String plan = explain(statement);
+                if (plan.toLowerCase(Locale.ROOT).contains("tablescan")) {
+                    fullScans.add(finder + ":\n" + statement.sql() + "\n" + plan);
+                }
+            }
+        });
+
+        assertThat(fullScans).as("以下查询出现全表扫描").isEmpty();
+    }
+
+    private String explain(Statement statement) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql())) {
+                statement.bind(explain);
+                List<String> lines = new ArrayList<>();
+                try (ResultSet rs = explain.executeQuery()) {
+                    while (rs.next()) {
+                        lines.add(rs.getString(1));
+                    }
+                }
+                return String.join("\n", lines);
+            }
+        });
+    }
+
+    private static boolean isUnconditionalCount(String sql) {
+        String lower = sql.toLowerCase(Locale.ROOT);
+        return lower.startsWith("select count(") && !lower.contains(" where ");
+    }
+
+    /**
+     * 包装数据源，记录仓库方法发出的语句；嵌套的测试配置在应用配置之外自动加载
+     */
+    @TestConfiguration
+    static class RecordingConfig {
+
+        @Bean
+        static BeanPostProcessor statementRecordingPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? StatementRecorder.wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+}
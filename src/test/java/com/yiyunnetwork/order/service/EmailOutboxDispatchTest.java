@@ -0,0 +1,122 @@
+package com.yiyunnetwork.order.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetup;
+import com.yiyunnetwork.order.model.EmailOutbox;
+import com.yiyunnetwork.order.model.enums.EmailOutboxStatus;
+import com.yiyunnetwork.order.repository.EmailOutboxRepository;
+import com.yiyunnetwork.order.service.impl.EmailServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 发件箱投递测试：使用进程内SMTP服务（GreenMail，端口与 application-test.yml 一致）
+ * 测试配置为 2 个连接 × 每连接 3 封，每次调度最多投递 6 封
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class EmailOutboxDispatchTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(new ServerSetup(2525, null, ServerSetup.PROTOCOL_SMTP));
+
+    @Autowired
+    private EmailServiceImpl emailService;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        emailOutboxRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void dispatchesQueuedEmailsWithinPerConnectionCap() throws Exception {
+        for (int i = 0; i < 7; i++) {
+            emailService.sendSimpleTextEmail("customer" + i + "@example.com", "主题" + i, "内容" + i);
+        }
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+
+        emailService.dispatch().join();
+        assertThat(greenMail.getReceivedMessages()).hasSize(6);
+        assertThat(emailOutboxRepository.countByStatus(EmailOutboxStatus.PENDING)).isEqualTo(1);
+        // 指标在调度开始时刷新，采集时不查询数据库
+        assertThat(meterRegistry.get("email.outbox.pending").gauge().value()).isEqualTo(7);
+
+        emailService.dispatch().join();
+        assertThat(greenMail.getReceivedMessages()).hasSize(7);
+        assertThat(meterRegistry.get("email.outbox.pending").gauge().value()).isEqualTo(1);
+        assertThat(emailOutboxRepository.findAll())
+                .extracting(EmailOutbox::getStatus)
+                .containsOnly(EmailOutboxStatus.SENT);
+    }
+
+    @Test
+    void failedDeliveryIsScheduledForRetry() {
+        greenMail.stop();
+        emailService.sendSimpleTextEmail("customer@example.com", "主题", "内容");
+
+        // 首次失败按 retry-delay（30秒）重试
+        LocalDateTime before = LocalDateTime.now();
+        emailService.dispatch().join();
+        LocalDateTime after = LocalDateTime.now();
+
+        EmailOutbox email = emailOutboxRepository.findAll().get(0);
+        assertThat(email.getStatus()).isEqualTo(EmailOutboxStatus.PENDING);
+        assertThat(email.getAttempts()).isEqualTo(1);
+        assertThat(email.getLastError()).isNotBlank();
+        assertThat(email.getNextAttemptTime()).isBetween(before.plusSeconds(30), after.plusSeconds(30));
+
+        // 提前到期后再次失败，间隔翻倍
+        email.setNextAttemptTime(LocalDateTime.now().minusSeconds(1));
+        emailOutboxRepository.save(email);
+        before = LocalDateTime.now();
+        emailService.dispatch().join();
+        after = LocalDateTime.now();
+
+        email = emailOutboxRepository.findAll().get(0);
+        assertThat(email.getStatus()).isEqualTo(EmailOutboxStatus.PENDING);
+        assertThat(email.getAttempts()).isEqualTo(2);
+        assertThat(email.getNextAttemptTime()).isBetween(before.plusSeconds(60), after.plusSeconds(60));
+    }
+
+    @Test
+    void purgeRemovesFinishedEmailsPastRetention() {
+        LocalDateTime now = LocalDateTime.now();
+        EmailOutbox oldSent = save(EmailOutboxStatus.SENT, now.minusDays(8));
+        EmailOutbox recentSent = save(EmailOutboxStatus.SENT, now.minusDays(1));
+        EmailOutbox oldFailed = save(EmailOutboxStatus.FAILED, now.minusDays(31));
+        EmailOutbox recentFailed = save(EmailOutboxStatus.FAILED, now.minusDays(10));
+        EmailOutbox oldPending = save(EmailOutboxStatus.PENDING, now.minusDays(60));
+
+        emailService.purgeOutbox();
+
+        assertThat(emailOutboxRepository.findAll())
+                .extracting(EmailOutbox::getId)
+                .containsExactlyInAnyOrder(recentSent.getId(), recentFailed.getId(), oldPending.getId())
+                .doesNotContain(oldSent.getId(), oldFailed.getId());
+    }
+
+    private EmailOutbox save(EmailOutboxStatus status, LocalDateTime nextAttemptTime) {
+        return emailOutboxRepository.save(EmailOutbox.builder()
+                .recipient("customer@example.com")
+                .subject("主题")
+                .content("内容")
+                .status(status)
+                .nextAttemptTime(nextAttemptTime)
+                .build());
+    }
+}
@@ -0,0 +1,74 @@
+package com.yiyunnetwork.order.service;
+
+import com.yiyunnetwork.order.service.impl.JwtBlacklistServiceImpl;
+import com.yiyunnetwork.order.util.BloomFilter;
+import com.yiyunnetwork.order.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+/**
+ * 注销与布隆过滤器重建交错：重建扫描已越过该令牌、且在写入当前过滤器期间完成替换时，令牌仍需出现在新过滤器中
+ */
+class JwtBlacklistRebuildTest {
+
+    private static final String TOKEN = "logged-out-token";
+
+    private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+
+    @Test
+    void tokenAddedDuringRebuildSurvivesTheSwap() throws Exception {
+        JwtBlacklistServiceImpl service = new JwtBlacklistServiceImpl(redis, mock(JwtUtil.class),
+                mock(RedisMessageListenerContainer.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "expectedInsertions", 1000);
+        ReflectionTestUtils.setField(service, "falsePositiveRate", 0.01);
+        service.init();
+
+        // 当前过滤器写入令牌时暂停，直到重建完成替换
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch swapped = new CountDownLatch(1);
+        BloomFilter current = spy(new BloomFilter(1000, 0.01));
+        doAnswer(invocation -> {
+            writing.countDown();
+            assertThat(swapped.await(5, TimeUnit.SECONDS)).isTrue();
+            return invocation.callRealMethod();
+        }).when(current).put(TOKEN);
+        ReflectionTestUtils.setField(service, "bloomFilter", current);
+
+        // 扫描进行中收到其他节点的注销通知，扫描本身没有读到该令牌
+        Thread logout = new Thread(() -> service.onMessage(
+                new DefaultMessage(new byte[0], TOKEN.getBytes(StandardCharsets.UTF_8)), null));
+        @SuppressWarnings("unchecked")
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> {
+            logout.start();
+            assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+            return false;
+        });
+        when(redis.scan(any(ScanOptions.class))).thenReturn(cursor);
+        when(redis.hasKey(anyString())).thenReturn(true);
+
+        service.rebuildFilter();
+        swapped.countDown();
+        logout.join(5000);
+
+        assertThat(service.isBlacklisted(TOKEN)).isTrue();
+    }
+}
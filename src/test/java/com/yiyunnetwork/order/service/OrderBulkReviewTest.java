@@ -0,0 +1,169 @@
+package com.yiyunnetwork.order.service;
+
+import com.yiyunnetwork.order.dto.order.OrderReviewResultDTO;
+import com.yiyunnetwork.order.dto.order.OrderReviewResultDTO.Outcome;
+import com.yiyunnetwork.order.model.Order;
+import com.yiyunnetwork.order.model.Product;
+import com.yiyunnetwork.order.model.User;
+import com.yiyunnetwork.order.model.enums.EmailOutboxStatus;
+import com.yiyunnetwork.order.model.enums.OrderStatus;
+import com.yiyunnetwork.order.repository.EmailOutboxRepository;
+import com.yiyunnetwork.order.repository.OrderLogRepository;
+import com.yiyunnetwork.order.repository.OrderRepository;
+import com.yiyunnetwork.order.repository.UserRepository;
+import com.yiyunnetwork.order.support.OrderFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * 批量审核：可审核的订单一次更新，其余订单按原因单独返回
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(OrderFixtures.class)
+class OrderBulkReviewTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderFixtures fixtures;
+
+    @SpyBean
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderLogRepository orderLogRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Product product;
+
+    private User reviewer;
+
+    private User otherAgent;
+
+    @BeforeEach
+    void setUp() {
+        product = fixtures.saveProduct("测试商品");
+        reviewer = userRepository.findByUsername("admin").orElseThrow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteAll();
+        if (otherAgent != null) {
+            userRepository.delete(otherAgent);
+        }
+    }
+
+    @Test
+    void bulkAgentReviewReportsOutcomePerOrder() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(saveOrder(i, OrderStatus.PENDING_AGENT_REVIEW));
+        }
+        UUID inProgress = saveOrder(5, OrderStatus.IN_PROGRESS);
+        UUID missing = UUID.randomUUID();
+
+        List<UUID> request = new ArrayList<>(ids);
+        request.add(inProgress);
+        request.add(missing);
+
+        List<OrderReviewResultDTO> results = orderService.agentReviewOrders(request, true, reviewer, null);
+
+        assertThat(results).extracting(OrderReviewResultDTO::getOrderId).containsExactlyElementsOf(request);
+        assertThat(results.subList(0, 5)).extracting(OrderReviewResultDTO::getOutcome).containsOnly(Outcome.UPDATED);
+        assertThat(results.get(5).getOutcome()).isEqualTo(Outcome.INVALID_STATUS);
+        assertThat(results.get(6).getOutcome()).isEqualTo(Outcome.NOT_FOUND);
+
+        assertThat(orderRepository.findAllById(ids))
+                .allSatisfy(order -> {
+                    assertThat(order.getStatus()).isEqualTo(OrderStatus.PENDING_ADMIN_REVIEW);
+                    assertThat(order.getVersion()).isEqualTo(1L);
+                    assertThat(order.getAgent().getId()).isEqualTo(reviewer.getId());
+                });
+        assertThat(orderLogRepository.count()).isEqualTo(5);
+        assertThat(emailOutboxRepository.countByStatus(EmailOutboxStatus.PENDING)).isEqualTo(5);
+    }
+
+    @Test
+    void ordersAssignedToAnotherAgentAreForbidden() {
+        otherAgent = fixtures.saveUser("other-agent");
+        UUID own = saveOrder(0, OrderStatus.PENDING_AGENT_REVIEW);
+        UUID assigned = orderRepository.save(fixtures.order(product, orderNo(1))
+                .agent(otherAgent)
+                .build()).getId();
+
+        List<OrderReviewResultDTO> results =
+                orderService.agentReviewOrders(List.of(own, assigned), true, reviewer, null);
+
+        assertThat(results).extracting(OrderReviewResultDTO::getOutcome)
+                .containsExactly(Outcome.UPDATED, Outcome.FORBIDDEN);
+        Order untouched = orderRepository.findById(assigned).orElseThrow();
+        assertThat(untouched.getStatus()).isEqualTo(OrderStatus.PENDING_AGENT_REVIEW);
+        assertThat(untouched.getVersion()).isZero();
+        assertThat(untouched.getAgent().getId()).isEqualTo(otherAgent.getId());
+        assertThat(orderLogRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void orderReviewedConcurrentlyIsNotAttributedToThisBatch() {
+        UUID kept = saveOrder(0, OrderStatus.PENDING_AGENT_REVIEW);
+        UUID changed = saveOrder(1, OrderStatus.PENDING_AGENT_REVIEW);
+
+        // 请求发出后、订单锁定前，另一个审核已提交并把订单改为同一目标状态
+        TransactionTemplate concurrent = new TransactionTemplate(transactionManager);
+        concurrent.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        doAnswer(invocation -> {
+            concurrent.executeWithoutResult(status -> orderRepository.transitionStatus(changed,
+                    OrderStatus.PENDING_AGENT_REVIEW, 0L, OrderStatus.PENDING_ADMIN_REVIEW, "并发审核",
+                    null, null, LocalDateTime.now(), null));
+            return invocation.callRealMethod();
+        }).when(orderRepository).findAllByIdForUpdate(anyCollection());
+
+        List<OrderReviewResultDTO> results =
+                orderService.agentReviewOrders(List.of(kept, changed), true, reviewer, null);
+
+        assertThat(results).extracting(OrderReviewResultDTO::getOutcome)
+                .containsExactly(Outcome.UPDATED, Outcome.INVALID_STATUS);
+        Order concurrentlyReviewed = orderRepository.findById(changed).orElseThrow();
+        assertThat(concurrentlyReviewed.getVersion()).isEqualTo(1L);
+        assertThat(concurrentlyReviewed.getRemark()).isEqualTo("并发审核");
+        assertThat(orderLogRepository.count()).isEqualTo(1);
+        assertThat(emailOutboxRepository.countByStatus(EmailOutboxStatus.PENDING)).isEqualTo(1);
+    }
+
+    private UUID saveOrder(int index, OrderStatus status) {
+        return fixtures.saveOrder(product, orderNo(index), status).getId();
+    }
+
+    private static String orderNo(int index) {
+        return String.format("B%019d", index);
+    }
+}
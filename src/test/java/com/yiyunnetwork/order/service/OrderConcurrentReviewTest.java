@@ -0,0 +1,96 @@
+package com.yiyunnetwork.order.service;
+
+import com.yiyunnetwork.order.exception.BusinessException;
+import com.yiyunnetwork.order.model.Order;
+import com.yiyunnetwork.order.model.Product;
+import com.yiyunnetwork.order.model.User;
+import com.yiyunnetwork.order.model.enums.OrderStatus;
+import com.yiyunnetwork.order.repository.OrderLogRepository;
+import com.yiyunnetwork.order.repository.OrderRepository;
+import com.yiyunnetwork.order.repository.UserRepository;
+import com.yiyunnetwork.order.support.OrderFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 并发审核同一订单：条件更新保证只有一个审核生效
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(OrderFixtures.class)
+class OrderConcurrentReviewTest {
+
+    private static final int REVIEWERS = 4;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderFixtures fixtures;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderLogRepository orderLogRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteAll();
+    }
+
+    @Test
+    void onlyOneConcurrentReviewWins() throws Exception {
+        Product product = fixtures.saveProduct("测试商品");
+        User reviewer = userRepository.findByUsername("admin").orElseThrow();
+        UUID orderId = fixtures.saveOrder(product, "C0000000000000000001", OrderStatus.PENDING_AGENT_REVIEW).getId();
+
+        CyclicBarrier barrier = new CyclicBarrier(REVIEWERS);
+        ExecutorService executor = Executors.newFixedThreadPool(REVIEWERS);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < REVIEWERS; i++) {
+            boolean approved = i % 2 == 0;
+            results.add(executor.submit(() -> {
+                barrier.await();
+                try {
+                    orderService.agentReviewOrder(orderId, approved, reviewer, null);
+                    return true;
+                } catch (BusinessException e) {
+                    // 冲突或订单已不在待代理审核状态
+                    return false;
+                }
+            }));
+        }
+        executor.shutdown();
+
+        int succeeded = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                succeeded++;
+            }
+        }
+
+        Order order = orderRepository.findById(orderId).orElseThrow();
+        assertThat(succeeded).isEqualTo(1);
+        assertThat(order.getVersion()).isEqualTo(1L);
+        assertThat(order.getStatus()).isIn(OrderStatus.PENDING_ADMIN_REVIEW, OrderStatus.REJECTED);
+        assertThat(orderLogRepository.count()).isEqualTo(1);
+    }
+}
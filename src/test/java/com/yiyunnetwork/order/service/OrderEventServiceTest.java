@@ -0,0 +1,221 @@
+package com.yiyunnetwork.order.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.yiyunnetwork.order.service.impl.OrderEventServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 订单状态推送：按订阅分组分发，写出不占用调度线程，订阅与最后一个连接断开并发时不丢失订阅
+ */
+class OrderEventServiceTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final ConcurrentLinkedQueue<RecordingEmitter> preparedEmitters = new ConcurrentLinkedQueue<>();
+    private ExecutorService pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void eventsReachEveryMatchingGroup() throws Exception {
+        OrderEventServiceImpl service = createService(new SyncTaskExecutor());
+        UUID orderId = UUID.randomUUID();
+
+        RecordingEmitter order = prepare(service, () -> service.subscribeOrder(orderId));
+        RecordingEmitter agent = prepare(service, () -> service.subscribeAgent("agent1"));
+        RecordingEmitter all = prepare(service, service::subscribeAll);
+        RecordingEmitter otherOrder = prepare(service, () -> service.subscribeOrder(UUID.randomUUID()));
+        RecordingEmitter otherAgent = prepare(service, () -> service.subscribeAgent("agent2"));
+
+        service.onMessage(message(orderId, "agent1"), null);
+
+        assertThat(order.events()).hasSize(1).allMatch(e -> e.contains("event:order-status"));
+        assertThat(agent.events()).hasSize(1);
+        assertThat(all.events()).hasSize(1);
+        assertThat(otherOrder.events()).isEmpty();
+        assertThat(otherAgent.events()).isEmpty();
+    }
+
+    @Test
+    void heartbeatDoesNotWaitForSlowClient() throws Exception {
+        pool = Executors.newFixedThreadPool(2);
+        OrderEventServiceImpl service = createService(pool::execute);
+
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = prepare(service, () -> service.subscribeOrder(UUID.randomUUID()));
+        slow.blockUntil = release;
+        RecordingEmitter fast = prepare(service, () -> service.subscribeOrder(UUID.randomUUID()));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+            service.heartbeat();
+            service.heartbeat();
+        });
+        awaitEvents(fast, 2);
+        assertThat(slow.events()).isEmpty();
+
+        release.countDown();
+        awaitEvents(slow, 2);
+    }
+
+    @Test
+    void closesClientThatFallsTooFarBehind() throws Exception {
+        // 写出任务从不执行，事件全部积压
+        OrderEventServiceImpl service = createService(task -> {
+        });
+        ReflectionTestUtils.setField(service, "maxPending", 2);
+        RecordingEmitter emitter = prepare(service, service::subscribeAll);
+
+        service.heartbeat();
+        service.heartbeat();
+        assertThat(emitter.completed).isFalse();
+
+        service.heartbeat();
+        assertThat(emitter.completed).isTrue();
+    }
+
+    @Test
+    void subscriptionSurvivesConcurrentRemovalOfLastConnection() throws Exception {
+        OrderEventServiceImpl service = createService(new SyncTaskExecutor());
+        UUID orderId = UUID.randomUUID();
+        pool = Executors.newFixedThreadPool(2);
+
+        for (int i = 0; i < 500; i++) {
+            RecordingEmitter leaving = prepare(service, () -> service.subscribeOrder(orderId));
+            RecordingEmitter joining = new RecordingEmitter();
+            preparedEmitters.add(joining);
+
+            CyclicBarrier barrier = new CyclicBarrier(2);
+            var left = pool.submit(() -> {
+                barrier.await();
+                leaving.complete();
+                return null;
+            });
+            var joined = pool.submit(() -> {
+                barrier.await();
+                return service.subscribeOrder(orderId);
+            });
+            left.get(5, TimeUnit.SECONDS);
+            assertThat(joined.get(5, TimeUnit.SECONDS)).isSameAs(joining);
+
+            service.heartbeat();
+            assertThat(joining.events()).as("iteration %d", i).hasSize(1);
+            joining.complete();
+        }
+    }
+
+    private OrderEventServiceImpl createService(TaskExecutor executor) {
+        OrderEventServiceImpl service = new OrderEventServiceImpl(mock(StringRedisTemplate.class),
+                mock(RedisMessageListenerContainer.class), objectMapper, new SimpleMeterRegistry(), executor) {
+            @Override
+            protected SseEmitter createEmitter() {
+                RecordingEmitter emitter = preparedEmitters.poll();
+                return emitter != null ? emitter : new RecordingEmitter();
+            }
+        };
+        ReflectionTestUtils.setField(service, "timeout", 60000L);
+        ReflectionTestUtils.setField(service, "maxConnections", 100);
+        ReflectionTestUtils.setField(service, "maxPending", 100);
+        return service;
+    }
+
+    private RecordingEmitter prepare(OrderEventServiceImpl service, Supplier<SseEmitter> subscribe) {
+        RecordingEmitter emitter = new RecordingEmitter();
+        preparedEmitters.add(emitter);
+        assertThat(subscribe.get()).isSameAs(emitter);
+        return emitter;
+    }
+
+    private Message message(UUID orderId, String agentName) throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(Map.of(
+                "agentName", agentName,
+                "event", Map.of("orderId", orderId.toString(), "toStatus", "IN_PROGRESS")));
+        Message message = mock(Message.class);
+        when(message.getBody()).thenReturn(body);
+        return message;
+    }
+
+    private static void awaitEvents(RecordingEmitter emitter, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (emitter.events().size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(emitter.events()).hasSize(count);
+    }
+
+    /**
+     * 记录写出的事件，可阻塞写出模拟慢客户端；complete 时执行完成回调
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+        private volatile CountDownLatch blockUntil;
+        private volatile Runnable completionCallback;
+        private volatile boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            CountDownLatch latch = blockUntil;
+            if (latch != null) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            sent.add(builder.build().stream()
+                    .map(data -> String.valueOf(data.getData()))
+                    .collect(Collectors.joining()));
+        }
+
+        @Override
+        public void onCompletion(Runnable callback) {
+            completionCallback = callback;
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+            Runnable callback = completionCallback;
+            if (callback != null) {
+                callback.run();
+            }
+        }
+
+        List<String> events() {
+            return sent;
+        }
+    }
+}
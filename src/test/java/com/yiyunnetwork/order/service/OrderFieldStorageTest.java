@@ -0,0 +1,134 @@
+package com.yiyunnetwork.order.service;
+
+import com.yiyunnetwork.order.dto.order.OrderCreateDTO;
+import com.yiyunnetwork.order.exception.BusinessException;
+import com.yiyunnetwork.order.model.Order;
+import com.yiyunnetwork.order.model.OrderField;
+import com.yiyunnetwork.order.model.Product;
+import com.yiyunnetwork.order.model.enums.FieldType;
+import com.yiyunnetwork.order.repository.OrderFieldRepository;
+import com.yiyunnetwork.order.repository.OrderRepository;
+import com.yiyunnetwork.order.service.impl.OrderFieldStorageServiceImpl;
+import com.yiyunnetwork.order.support.OrderFixtures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * JSON 存储模式：新订单字段值只写订单一行，历史订单从 order_fields 逐批迁移到 JSON 列
+ */
+@SpringBootTest(properties = {
+        "order-fields.storage=json",
+        "order-fields.migration-interval=3600000"
+})
+@ActiveProfiles("test")
+@Import(OrderFixtures.class)
+class OrderFieldStorageTest {
+
+    private static final Map<String, String> VALUES = Map.of("wechat", "wx_123", "qq", "10001");
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderFieldStorageService orderFieldStorageService;
+
+    @Autowired
+    private OrderFixtures fixtures;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderFieldRepository orderFieldRepository;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, String> fieldNames = new LinkedHashMap<>();
+        fieldNames.put("wechat", "微信");
+        fieldNames.put("qq", "QQ");
+        product = fixtures.saveProduct("测试商品", fieldNames);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteAll();
+    }
+
+    @Test
+    void createdOrderKeepsFieldValuesInJsonColumn() {
+        Order created = orderService.createOrder(OrderCreateDTO.builder()
+                .productId(product.getId())
+                .customerEmail("customer@example.com")
+                .fields(VALUES)
+                .build());
+
+        assertThat(orderFieldRepository.count()).isZero();
+        assertThat(orderRepository.findById(created.getId()).orElseThrow().getFieldValues()).isEqualTo(VALUES);
+        assertThat(orderService.getOrderDetail(created.getId()).resolveFieldValues()).isEqualTo(VALUES);
+        assertThat(orderService.getOrderFields(created.getId())).isEqualTo(VALUES);
+    }
+
+    @Test
+    void migrateBatchCopiesLegacyRowsIntoJsonColumn() {
+        UUID withFields = saveLegacyOrder(0, VALUES);
+        UUID withoutFields = saveLegacyOrder(1, Map.of());
+
+        int migrated = 0;
+        int count;
+        while ((count = orderFieldStorageService.migrateBatch()) > 0) {
+            migrated += count;
+        }
+
+        assertThat(migrated).isEqualTo(2);
+        assertThat(orderRepository.findById(withFields).orElseThrow().getFieldValues()).isEqualTo(VALUES);
+        assertThat(orderRepository.findById(withoutFields).orElseThrow().getFieldValues()).isEmpty();
+        // order_fields 中的行保留，读取改走 JSON 列
+        assertThat(orderFieldRepository.count()).isEqualTo(VALUES.size());
+        assertThat(orderService.getOrderFields(withFields)).isEqualTo(VALUES);
+        assertThat(orderFieldStorageService.migrateBatch()).isZero();
+    }
+
+    @Test
+    void searchIsRejectedWithoutGeneratedColumns() {
+        // 测试库不是 MySQL，不建立生成列
+        assertThatThrownBy(() -> orderFieldStorageService.findOrderIdsByField(
+                "wechat", "wx_123", null, PageRequest.of(0, 10)))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void columnNamesDifferForKeysDifferingOnlyByCase() {
+        String lower = OrderFieldStorageServiceImpl.searchableColumnName("wechat");
+        String upper = OrderFieldStorageServiceImpl.searchableColumnName("WeChat");
+
+        assertThat(lower).isNotEqualToIgnoringCase(upper);
+        assertThat(OrderFieldStorageServiceImpl.searchableColumnName("x".repeat(50)).length())
+                .isLessThanOrEqualTo(64 - "idx_orders_".length());
+    }
+
+    private UUID saveLegacyOrder(int index, Map<String, String> values) {
+        Order order = fixtures.order(product, String.format("M%019d", index)).build();
+        values.forEach((key, value) -> order.getFields().add(OrderField.builder()
+                .order(order)
+                .fieldKey(key)
+                .fieldType(FieldType.TEXT)
+                .fieldValue(value)
+                .build()));
+        return orderRepository.save(order).getId();
+    }
+}
@@ -0,0 +1,130 @@
+package com.yiyunnetwork.order.service;
+
+import com.yiyunnetwork.order.config.RateLimitConfig;
+import com.yiyunnetwork.order.service.RateLimitService.Decision;
+import com.yiyunnetwork.order.service.RateLimitService.Route;
+import com.yiyunnetwork.order.service.impl.RateLimitServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 集群限流：租用的令牌在本地消耗，到期未用完的归还 Redis；Redis 拒绝后在重试时间内不再访问 Redis；
+ * Redis 不可用时退回本节点限流，按间隔试探是否恢复
+ */
+class RateLimitServiceTest {
+
+    private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+
+    private RateLimitServiceImpl rateLimitService;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitConfig config = new RateLimitConfig();
+        ReflectionTestUtils.setField(config, "orderCapacity", 1);
+        ReflectionTestUtils.setField(config, "orderRefillPeriod", 3600);
+        ReflectionTestUtils.setField(config, "maxKeys", 1000L);
+
+        rateLimitService = new RateLimitServiceImpl(config,
+                config.verificationCodeBuckets(), config.orderBuckets(), redis);
+        ReflectionTestUtils.setField(rateLimitService, "orderMode", "redis");
+        ReflectionTestUtils.setField(rateLimitService, "orderLease", 5);
+        ReflectionTestUtils.setField(rateLimitService, "leaseTtl", 60000L);
+        ReflectionTestUtils.setField(rateLimitService, "redisRetryInterval", 60000L);
+        rateLimitService.init();
+    }
+
+    @Test
+    void consumesLeasedTokensLocally() {
+        when(redis.execute(any(RedisScript.class), anyList(), any(), any(), any()))
+                .thenReturn(List.of(5L, 0L), List.of(0L, 1500L));
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(rateLimitService.tryConsume(Route.ORDER, "ip:10.0.0.1").allowed()).isTrue();
+        }
+        verify(redis, times(1)).execute(any(RedisScript.class),
+                eq(List.of("rate-limit:order:ip:10.0.0.1")), eq("1"), eq("3600000"), eq("5"));
+
+        Decision denied = rateLimitService.tryConsume(Route.ORDER, "ip:10.0.0.1");
+        assertThat(denied.allowed()).isFalse();
+        assertThat(denied.retryAfterSeconds()).isEqualTo(2);
+
+        // 重试时间内直接拒绝
+        assertThat(rateLimitService.tryConsume(Route.ORDER, "ip:10.0.0.1").allowed()).isFalse();
+        verify(redis, times(2)).execute(any(RedisScript.class), anyList(), any(), any(), any());
+    }
+
+    @Test
+    void fallsBackToLocalBucketsWhenRedisIsUnavailable() {
+        when(redis.execute(any(RedisScript.class), anyList(), any(), any(), any()))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        assertThat(rateLimitService.tryConsume(Route.ORDER, "ip:10.0.0.1").allowed()).isTrue();
+        assertThat(rateLimitService.tryConsume(Route.ORDER, "ip:10.0.0.1").allowed()).isFalse();
+    }
+
+    @Test
+    void denialIsCachedUntilRetryTimeBeyondLeaseTtl() throws InterruptedException {
+        ReflectionTestUtils.setField(rateLimitService, "leaseTtl", 1L);
+        rateLimitService.init();
+        when(redis.execute(any(RedisScript.class), anyList(), any(), any(), any()))
+                .thenReturn(List.of(0L, 60000L));
+
+        assertThat(rateLimitService.tryConsume(Route.ORDER, "ip:10.0.0.1").allowed()).isFalse();
+        Thread.sleep(50);
+
+        Decision denied = rateLimitService.tryConsume(Route.ORDER, "ip:10.0.0.1");
+        assertThat(denied.allowed()).isFalse();
+        assertThat(denied.retryAfterSeconds()).isBetween(59L, 60L);
+        verify(redis, times(1)).execute(any(RedisScript.class), anyList(), any(), any(), any());
+    }
+
+    @Test
+    void skipsRedisUntilRetryIntervalAfterFailure() {
+        when(redis.execute(any(RedisScript.class), anyList(), any(), any(), any()))
+                .thenThrow(new RedisConnectionFailureException("down"))
+                .thenReturn(List.of(5L, 0L));
+
+        for (int i = 0; i < 3; i++) {
+            rateLimitService.tryConsume(Route.ORDER, "ip:10.0.0.1");
+        }
+        verify(redis, times(1)).execute(any(RedisScript.class), anyList(), any(), any(), any());
+
+        // 到达重试时间后试探成功，恢复集群限流
+        AtomicLong retryAt = (AtomicLong) ReflectionTestUtils.getField(rateLimitService, "redisRetryAt");
+        retryAt.set(1);
+        assertThat(rateLimitService.tryConsume(Route.ORDER, "ip:10.0.0.1").allowed()).isTrue();
+        assertThat(rateLimitService.tryConsume(Route.ORDER, "ip:10.0.0.1").allowed()).isTrue();
+        assertThat(retryAt.get()).isZero();
+        verify(redis, times(2)).execute(any(RedisScript.class), anyList(), any(), any(), any());
+    }
+
+    @Test
+    void returnsUnusedTokensWhenLeaseExpires() {
+        ReflectionTestUtils.setField(rateLimitService, "leaseTtl", 50L);
+        rateLimitService.init();
+        when(redis.execute(any(RedisScript.class), anyList(), any(), any(), any()))
+                .thenReturn(List.of(5L, 0L), List.of(0L, 0L));
+
+        assertThat(rateLimitService.tryConsume(Route.ORDER, "ip:10.0.0.1").allowed()).isTrue();
+
+        verify(redis, timeout(2000)).execute(any(RedisScript.class),
+                eq(List.of("rate-limit:order:ip:10.0.0.1")), eq("1"), eq("3600000"), eq("-4"));
+    }
+}
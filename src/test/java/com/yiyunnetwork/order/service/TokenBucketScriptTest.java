@@ -0,0 +1,94 @@
+package com.yiyunnetwork.order.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 集群限流的令牌桶脚本，在 localhost:6379 的 Redis（5 及以上）上执行，连接不上时跳过
+ */
+class TokenBucketScriptTest {
+
+    private static final RedisScript<List> SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/token_bucket.lua"), List.class);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redis;
+
+    private final String key = "rate-limit:test:" + UUID.randomUUID();
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory("localhost", 6379);
+        connectionFactory.afterPropertiesSet();
+        boolean available;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            available = "PONG".equals(connection.ping());
+        } catch (Exception e) {
+            available = false;
+        }
+        assumeTrue(available, "Redis is not available on localhost:6379");
+        redis = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        redis.delete(key);
+    }
+
+    @Test
+    void grantsRemainingTokensAndReportsWaitWhenEmpty() {
+        // 容量 3，每 20 秒恢复一个
+        assertThat(take(3, 60000, 2)).containsExactly(2L, 0L);
+        assertThat(take(3, 60000, 2)).containsExactly(1L, 0L);
+
+        List<Long> denied = take(3, 60000, 1);
+        assertThat(denied.get(0)).isZero();
+        assertThat(denied.get(1)).isBetween(19000L, 20000L);
+
+        assertThat(redis.getExpire(key, TimeUnit.MILLISECONDS)).isBetween(1L, 60000L);
+    }
+
+    @Test
+    void returnedTokensAreCappedAtCapacity() {
+        assertThat(take(3, 60000, 3)).containsExactly(3L, 0L);
+        assertThat(take(3, 60000, -2)).containsExactly(0L, 0L);
+        assertThat(take(3, 60000, 3)).containsExactly(2L, 0L);
+
+        assertThat(take(3, 60000, -5)).containsExactly(0L, 0L);
+        assertThat(take(3, 60000, 5)).containsExactly(3L, 0L);
+    }
+
+    @Test
+    void refillsByServerTime() throws InterruptedException {
+        assertThat(take(10, 200, 10)).containsExactly(10L, 0L);
+        assertThat(take(10, 200, 10).get(0)).isLessThan(10L);
+
+        Thread.sleep(250);
+        assertThat(take(10, 200, 10)).containsExactly(10L, 0L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> take(int capacity, long periodMillis, int requested) {
+        return (List<Long>) redis.execute(SCRIPT, List.of(key),
+                String.valueOf(capacity), String.valueOf(periodMillis), String.valueOf(requested));
+    }
+}
@@ -0,0 +1,121 @@
+package com.yiyunnetwork.order.support;
+
+import com.yiyunnetwork.order.model.Order;
+import com.yiyunnetwork.order.model.Product;
+import com.yiyunnetwork.order.model.ProductField;
+import com.yiyunnetwork.order.model.User;
+import com.yiyunnetwork.order.model.enums.FieldType;
+import com.yiyunnetwork.order.model.enums.OrderStatus;
+import com.yiyunnetwork.order.repository.EmailOutboxRepository;
+import com.yiyunnetwork.order.repository.OrderFieldRepository;
+import com.yiyunnetwork.order.repository.OrderLogRepository;
+import com.yiyunnetwork.order.repository.OrderRepository;
+import com.yiyunnetwork.order.repository.ProductFieldRepository;
+import com.yiyunnetwork.order.repository.ProductRepository;
+import com.yiyunnetwork.order.repository.UserRepository;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 测试数据：商品、订单和用户的默认构造与清理，测试类通过 @Import(OrderFixtures.class) 引入
+ */
+@TestComponent
+public class OrderFixtures {
+
+    public static final BigDecimal PRICE = new BigDecimal("99.00");
+
+    private final ProductRepository productRepository;
+    private final ProductFieldRepository productFieldRepository;
+    private final OrderRepository orderRepository;
+    private final OrderFieldRepository orderFieldRepository;
+    private final OrderLogRepository orderLogRepository;
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final UserRepository userRepository;
+
+    public OrderFixtures(ProductRepository productRepository, ProductFieldRepository productFieldRepository,
+                         OrderRepository orderRepository, OrderFieldRepository orderFieldRepository,
+                         OrderLogRepository orderLogRepository, EmailOutboxRepository emailOutboxRepository,
+                         UserRepository userRepository) {
+        this.productRepository = productRepository;
+        this.productFieldRepository = productFieldRepository;
+        this.orderRepository = orderRepository;
+        this.orderFieldRepository = orderFieldRepository;
+        this.orderLogRepository = orderLogRepository;
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * 保存没有自定义字段的商品
+     */
+    public Product saveProduct(String name) {
+        return productRepository.save(Product.builder()
+                .name(name)
+                .price(PRICE)
+                .build());
+    }
+
+    /**
+     * 保存带文本字段的商品，字段按 fieldNames 的迭代顺序排列
+     *
+     * @param fieldNames 字段标识到字段名称
+     */
+    public Product saveProduct(String name, Map<String, String> fieldNames) {
+        Product product = saveProduct(name);
+        List<ProductField> fields = new ArrayList<>();
+        fieldNames.forEach((key, fieldName) -> fields.add(ProductField.builder()
+                .product(product)
+                .name(fieldName)
+                .fieldKey(key)
+                .fieldType(FieldType.TEXT)
+                .displayOrder(fields.size())
+                .build()));
+        productFieldRepository.saveAll(fields);
+        return product;
+    }
+
+    /**
+     * 待代理审核的订单，未保存，可继续修改后保存
+     */
+    public Order.OrderBuilder order(Product product, String orderNo) {
+        return Order.builder()
+                .orderNo(orderNo)
+                .product(product)
+                .customerEmail("customer-" + orderNo.toLowerCase() + "@example.com")
+                .totalAmount(product.getPrice())
+                .status(OrderStatus.PENDING_AGENT_REVIEW)
+                .accessToken(UUID.randomUUID().toString());
+    }
+
+    public Order saveOrder(Product product, String orderNo, OrderStatus status) {
+        return orderRepository.save(order(product, orderNo).status(status).build());
+    }
+
+    /**
+     * 保存没有角色的用户，需由测试自行删除
+     */
+    public User saveUser(String username) {
+        return userRepository.save(User.builder()
+                .username(username)
+                .password("{noop}password")
+                .email(username + "@example.com")
+                .build());
+    }
+
+    /**
+     * 删除订单、商品及其关联数据和待发邮件，按外键依赖顺序
+     */
+    public void deleteAll() {
+        orderLogRepository.deleteAllInBatch();
+        orderFieldRepository.deleteAllInBatch();
+        orderRepository.deleteAllInBatch();
+        productFieldRepository.deleteAllInBatch();
+        productRepository.deleteAllInBatch();
+        emailOutboxRepository.deleteAllInBatch();
+    }
+}
@@ -0,0 +1,114 @@
+package com.yiyunnetwork.order.support;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 记录 Hibernate 实际发出的 SQL 及绑定的参数，用于对仓库方法生成的语句执行 EXPLAIN
+ * <p>
+ * 用 {@link #wrap(DataSource)} 包装数据源；只有在 {@link #record(Runnable)} 中、同一线程上预编译的语句才被记录
+ */
+public final class StatementRecorder {
+
+    /**
+     * 一条预编译语句及其参数绑定（按调用顺序）
+     */
+    public record Statement(String sql, List<Binding> bindings) {
+
+        /**
+         * 把记录的参数按原样绑定到另一条预编译语句上
+         */
+        public void bind(PreparedStatement target) throws SQLException {
+            for (Binding binding : bindings) {
+                try {
+                    binding.setter().invoke(target, binding.args());
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                } catch (InvocationTargetException e) {
+                    if (e.getCause() instanceof SQLException sqlException) {
+                        throw sqlException;
+                    }
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        }
+    }
+
+    public record Binding(Method setter, Object[] args) {
+    }
+
+    private static final ThreadLocal<List<Statement>> RECORDING = new ThreadLocal<>();
+
+    private StatementRecorder() {
+    }
+
+    /**
+     * 执行 action，返回期间当前线程预编译的全部语句
+     */
+    public static List<Statement> record(Runnable action) {
+        List<Statement> statements = new ArrayList<>();
+        RECORDING.set(statements);
+        try {
+            action.run();
+        } finally {
+            RECORDING.remove();
+        }
+        return statements;
+    }
+
+    public static DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, (method, args, result) ->
+                result instanceof Connection connection && method.getName().equals("getConnection")
+                        ? wrap(connection)
+                        : result);
+    }
+
+    private static Connection wrap(Connection connection) {
+        return proxy(Connection.class, connection, (method, args, result) -> {
+            List<Statement> statements = RECORDING.get();
+            if (statements == null || !(result instanceof PreparedStatement prepared)
+                    || !method.getName().equals("prepareStatement")) {
+                return result;
+            }
+            Statement statement = new Statement((String) args[0], new ArrayList<>());
+            statements.add(statement);
+            return wrap(prepared, statement);
+        });
+    }
+
+    private static PreparedStatement wrap(PreparedStatement prepared, Statement statement) {
+        return proxy(PreparedStatement.class, prepared, (method, args, result) -> {
+            if (method.getName().equals("clearParameters")) {
+                statement.bindings().clear();
+            } else if (method.getName().startsWith("set") && args != null && args.length >= 2
+                    && args[0] instanceof Integer) {
+                statement.bindings().add(new Binding(method, args.clone()));
+            }
+            return result;
+        });
+    }
+
+    @FunctionalInterface
+    private interface ResultMapper {
+        Object map(Method method, Object[] args, Object result);
+    }
+
+    private static <T> T proxy(Class<T> type, T target, ResultMapper mapper) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            try {
+                return mapper.map(method, args, method.invoke(target, args));
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+}
@@ -0,0 +1,134 @@
+package com.yiyunnetwork.order.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderNoGeneratorTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Shanghai");
+    // 2024-01-01 00:00:00 +08:00
+    private static final long SECOND = 1704038400L;
+
+    @Test
+    void formatsDateTimeNodeAndSequence() {
+        OrderNoGenerator generator = new OrderNoGenerator(7, ZONE, () -> SECOND);
+
+        assertThat(generator.next()).isEqualTo("20240101000000070000");
+        assertThat(generator.next()).isEqualTo("20240101000000070001");
+    }
+
+    @Test
+    void borrowsNextSecondWhenSequenceIsExhausted() {
+        OrderNoGenerator generator = new OrderNoGenerator(1, ZONE, () -> SECOND);
+
+        String last = null;
+        for (int i = 0; i < OrderNoGenerator.SEQUENCE_LIMIT; i++) {
+            last = generator.next();
+        }
+        assertThat(last).isEqualTo("20240101000000019999");
+        assertThat(generator.next()).isEqualTo("20240101000001010000");
+    }
+
+    @Test
+    void staysMonotonicWhenClockGoesBack() {
+        AtomicLong clock = new AtomicLong(SECOND + 5);
+        OrderNoGenerator generator = new OrderNoGenerator(1, ZONE, clock::get);
+
+        String before = generator.next();
+        clock.set(SECOND);
+        String after = generator.next();
+
+        assertThat(after).isGreaterThan(before);
+        assertThat(after).startsWith("20240101000005");
+    }
+
+    @Test
+    void restartSkipsPastLastIssuedSecond() {
+        // 重启前借用到了 00:00:09，重启后时钟只到 00:00:05
+        OrderNoGenerator generator = new OrderNoGenerator(1, ZONE, () -> SECOND + 5);
+        generator.advancePast("20240101000009019999");
+
+        assertThat(generator.next()).isEqualTo("20240101000010010000");
+    }
+
+    @Test
+    void advancePastNeverMovesBackwards() {
+        OrderNoGenerator generator = new OrderNoGenerator(1, ZONE, () -> SECOND + 5);
+        generator.advancePast("20231231000000000000");
+        generator.advancePast(null);
+        generator.advancePast("not-an-order-no");
+
+        assertThat(generator.next()).isEqualTo("20240101000005010000");
+    }
+
+    @Test
+    void clockGoingBackAfterStartupKeepsStartupSecond() {
+        AtomicLong clock = new AtomicLong(SECOND + 5);
+        OrderNoGenerator generator = new OrderNoGenerator(1, ZONE, clock::get);
+        clock.set(SECOND);
+
+        assertThat(generator.next()).startsWith("20240101000005");
+    }
+
+    @Test
+    void rejectsNodeIdOutOfRange() {
+        assertThatThrownBy(() -> new OrderNoGenerator(OrderNoGenerator.MAX_NODE_ID + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new OrderNoGenerator(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * 多线程、多节点同时生成，且每秒生成量超过序号上限，不允许出现重复
+     */
+    @Test
+    void concurrentNodesNeverCollide() throws Exception {
+        int threadsPerNode = 8;
+        int perThread = 5000;
+        // 时钟固定在同一秒，迫使序号耗尽并借用后续秒数
+        List<OrderNoGenerator> nodes = List.of(
+                new OrderNoGenerator(1, ZONE, () -> SECOND),
+                new OrderNoGenerator(2, ZONE, () -> SECOND));
+
+        Set<String> orderNos = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threadsPerNode * nodes.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (OrderNoGenerator node : nodes) {
+                for (int t = 0; t < threadsPerNode; t++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < perThread; i++) {
+                            String orderNo = node.next();
+                            assertThat(orderNo).hasSize(20);
+                            orderNos.add(orderNo);
+                        }
+                        return null;
+                    }));
+                }
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(orderNos).hasSize(nodes.size() * threadsPerNode * perThread);
+    }
+}
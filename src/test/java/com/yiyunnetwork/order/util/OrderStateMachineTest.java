@@ -0,0 +1,45 @@
+package com.yiyunnetwork.order.util;
+
+import com.yiyunnetwork.order.exception.BusinessException;
+import com.yiyunnetwork.order.model.enums.OrderStatus;
+import com.yiyunnetwork.order.util.OrderStateMachine.Effect;
+import com.yiyunnetwork.order.util.OrderStateMachine.Role;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderStateMachineTest {
+
+    @Test
+    void declaredEdgesCarryRolesAndEffects() {
+        OrderStateMachine.Edge edge = OrderStateMachine.require(
+                OrderStatus.PENDING_AGENT_REVIEW, OrderStatus.PENDING_ADMIN_REVIEW, Role.AGENT);
+        assertThat(edge.has(Effect.ASSIGN_AGENT)).isTrue();
+        assertThat(edge.has(Effect.ASSIGN_ADMIN)).isFalse();
+
+        assertThat(OrderStateMachine.require(OrderStatus.IN_PROGRESS, OrderStatus.COMPLETED, Role.ADMIN)
+                .has(Effect.SET_COMPLETE_TIME)).isTrue();
+    }
+
+    @Test
+    void undeclaredEdgesAreRejected() {
+        assertThat(OrderStateMachine.canTransition(OrderStatus.IN_PROGRESS, OrderStatus.REJECTED)).isFalse();
+        assertThatThrownBy(() -> OrderStateMachine.require(OrderStatus.IN_PROGRESS, OrderStatus.REJECTED, Role.ADMIN))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("执行中的订单只能变更为已完成状态");
+        assertThatThrownBy(() -> OrderStateMachine.require(OrderStatus.COMPLETED, OrderStatus.CANCELLED, Role.ADMIN))
+                .hasMessage("已完成的订单不能更改状态");
+    }
+
+    @Test
+    void rolesAreCheckedPerEdge() {
+        assertThatThrownBy(() -> OrderStateMachine.require(OrderStatus.IN_PROGRESS, OrderStatus.COMPLETED, Role.AGENT))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> OrderStateMachine.require(
+                OrderStatus.PENDING_AGENT_REVIEW, OrderStatus.CANCELLED, Role.AGENT))
+                .isInstanceOf(BusinessException.class);
+        assertThat(OrderStateMachine.require(OrderStatus.PENDING_AGENT_REVIEW, OrderStatus.CANCELLED, Role.CUSTOMER)
+                .getTo()).isEqualTo(OrderStatus.CANCELLED);
+    }
+}
@@ -0,0 +1,95 @@
+package com.yiyunnetwork.order.util;
+
+import com.yiyunnetwork.order.exception.BusinessException;
+import com.yiyunnetwork.order.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 租用的订单号节点号：本地期限内不访问 Redis，期限已过时先续期，续期失败拒绝生成，租约丢失时重新租用
+ */
+class OrderUtilsNodeLeaseTest {
+
+    private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> values = mock(ValueOperations.class);
+
+    private OrderUtils orderUtils;
+
+    @BeforeEach
+    void setUp() {
+        when(redis.opsForValue()).thenReturn(values);
+        when(values.increment(anyString())).thenReturn(5L, 6L);
+        when(values.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+
+        orderUtils = new OrderUtils(redis, mock(OrderRepository.class));
+        ReflectionTestUtils.setField(orderUtils, "configuredNodeId", -1);
+        ReflectionTestUtils.setField(orderUtils, "nodeLeaseTtl", 60);
+        ReflectionTestUtils.setField(orderUtils, "nodeLeaseMargin", 10);
+        // 测试中不自动续期
+        ReflectionTestUtils.setField(orderUtils, "nodeLeaseRenewInterval", 3600000L);
+        orderUtils.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderUtils.releaseNodeLease();
+    }
+
+    @Test
+    void generatesWithoutRedisWhileLeaseIsValid() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(nodeOf(orderUtils.generateOrderNo())).isEqualTo("05");
+        }
+        verify(redis, never()).execute(any(RedisScript.class), anyList(), any(), any());
+    }
+
+    @Test
+    void refusesToGenerateWhenExpiredLeaseCannotBeRenewed() {
+        expireLocally();
+        when(redis.execute(any(RedisScript.class), anyList(), any(), any()))
+                .thenThrow(new RedisConnectionFailureException("down"))
+                .thenReturn(1L);
+
+        assertThatThrownBy(orderUtils::generateOrderNo).isInstanceOf(BusinessException.class);
+
+        // Redis 恢复后续期成功，继续使用原节点号
+        assertThat(nodeOf(orderUtils.generateOrderNo())).isEqualTo("05");
+        assertThat(nodeOf(orderUtils.generateOrderNo())).isEqualTo("05");
+    }
+
+    @Test
+    void leasesNewNodeIdWhenLeaseWasTakenOver() {
+        expireLocally();
+        // 租约已被其他节点占用，续期脚本返回 0
+        when(redis.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(0L);
+
+        assertThat(nodeOf(orderUtils.generateOrderNo())).isEqualTo("06");
+    }
+
+    private void expireLocally() {
+        ReflectionTestUtils.setField(orderUtils, "leaseDeadline", System.nanoTime() - 1);
+    }
+
+    private static String nodeOf(String orderNo) {
+        return orderNo.substring(14, 16);
+    }
+}
@@ -0,0 +1,127 @@
+package com.yiyunnetwork.order.util;
+
+import com.yiyunnetwork.order.exception.BusinessException;
+import com.yiyunnetwork.order.model.ProductField;
+import com.yiyunnetwork.order.model.enums.FieldType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class ProductFormSchemaTest {
+
+    private static final String OPTIONS = "[{\"label\":\"红\",\"value\":\"red\"},{\"label\":\"蓝\",\"value\":\"blue\"},"
+            + "{\"label\":\"绿\",\"value\":\"green\"}]";
+
+    @Test
+    void numberRangesAreInclusiveAndMayBeOpen() {
+        ProductFormSchema schema = ProductFormSchema.compile(null, List.of(
+                field("amount", FieldType.NUMBER, "[1,100]"),
+                field("deposit", FieldType.NUMBER, "0,")));
+
+        assertThat(schema.validate(Map.of("amount", "1", "deposit", "0"))).isEmpty();
+        assertThat(schema.validate(Map.of("amount", "100", "deposit", "1000000"))).isEmpty();
+        assertThat(schema.validate(Map.of("amount", "0"))).containsOnlyKeys("amount");
+        assertThat(schema.validate(Map.of("amount", "100.5"))).containsOnlyKeys("amount");
+        assertThat(schema.validate(Map.of("deposit", "-0.01"))).containsOnlyKeys("deposit");
+        assertThat(schema.validate(Map.of("amount", "abc"))).containsEntry("amount", "字段 amount 必须是数字");
+    }
+
+    @Test
+    void radioAcceptsOnlyConfiguredOptions() {
+        ProductFormSchema schema = ProductFormSchema.compile(null, List.of(options("color", FieldType.RADIO)));
+
+        assertThat(schema.validate(Map.of("color", "red"))).isEmpty();
+        // 只比较 value，不比较 label
+        assertThat(schema.validate(Map.of("color", "红"))).containsEntry("color", "字段 color 的选项无效");
+    }
+
+    @Test
+    void checkboxAcceptsJsonArraysAndCommaSeparatedValues() {
+        ProductFormSchema schema = ProductFormSchema.compile(null, List.of(options("colors", FieldType.CHECKBOX)));
+
+        assertThat(schema.validate(Map.of("colors", "[\"red\",\"blue\"]"))).isEmpty();
+        assertThat(schema.validate(Map.of("colors", "red, green"))).isEmpty();
+        assertThat(schema.validate(Map.of("colors", "blue"))).isEmpty();
+        assertThat(schema.validate(Map.of("colors", "[\"red\",\"black\"]"))).containsOnlyKeys("colors");
+        assertThat(schema.validate(Map.of("colors", "red,black"))).containsOnlyKeys("colors");
+        assertThat(schema.validate(Map.of("colors", "red,"))).containsOnlyKeys("colors");
+        assertThat(schema.validate(Map.of("colors", "[\"red\""))).containsOnlyKeys("colors");
+    }
+
+    @Test
+    void reportsEveryFailingFieldInDisplayOrder() {
+        ProductField phone = field("phone", FieldType.TEXT, "1[0-9]{10}");
+        phone.setValidationMessage("请输入11位手机号");
+        ProductField name = field("name", FieldType.TEXT, null);
+        name.setRequired(true);
+        ProductFormSchema schema = ProductFormSchema.compile(null, List.of(
+                name, phone, field("amount", FieldType.NUMBER, "1,10"), field("note", FieldType.TEXT, null)));
+
+        Map<String, String> values = new HashMap<>();
+        values.put("phone", "123");
+        values.put("amount", "11");
+        values.put("note", "备注");
+        values.put("unknown", "不属于商品的字段");
+
+        assertThat(schema.validate(values)).containsExactly(
+                Map.entry("name", "字段 name 为必填项"),
+                Map.entry("phone", "请输入11位手机号"),
+                Map.entry("amount", "字段 amount 格式不正确"));
+    }
+
+    @Test
+    void invalidRulesAreRejectedOnSaveButIgnoredForOrders() {
+        ProductField broken = field("code", FieldType.TEXT, "([a-z]");
+        broken.setRequired(true);
+        ProductField brokenOptions = field("size", FieldType.RADIO, null);
+        brokenOptions.setOptions("not json");
+
+        assertThatThrownBy(() -> ProductFormSchema.compile(null, List.of(broken)))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> ProductFormSchema.compile(null, List.of(brokenOptions)))
+                .isInstanceOf(BusinessException.class);
+
+        ProductFormSchema schema = ProductFormSchema.compileLenient(null, List.of(broken, brokenOptions));
+        assertThat(schema.validate(Map.of("code", "anything", "size", "XL"))).isEmpty();
+        // 其他校验照常
+        assertThat(schema.validate(Map.of())).containsOnlyKeys("code");
+    }
+
+    @Test
+    void longInputsAreRejectedBeforeRegexMatching() {
+        // 嵌套量词，长输入末尾不匹配时回溯次数随长度指数增长
+        ProductFormSchema schema = ProductFormSchema.compile(null, List.of(field("text", FieldType.TEXT, "(a+)+b")));
+        String attack = "a".repeat(ProductFormSchema.MAX_PATTERN_INPUT_LENGTH + 1);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(1),
+                () -> assertThat(schema.validate(Map.of("text", attack))).containsOnlyKeys("text"));
+        assertThat(schema.validate(Map.of("text", "aaab"))).isEmpty();
+
+        ProductFormSchema plain = ProductFormSchema.compile(null, List.of(field("text", FieldType.TEXT, null)));
+        assertThat(plain.validate(Map.of("text", "x".repeat(ProductFormSchema.MAX_VALUE_LENGTH)))).isEmpty();
+        assertThat(plain.validate(Map.of("text", "x".repeat(ProductFormSchema.MAX_VALUE_LENGTH + 1))))
+                .containsOnlyKeys("text");
+    }
+
+    private static ProductField field(String key, FieldType type, String rule) {
+        return ProductField.builder()
+                .name(key)
+                .fieldKey(key)
+                .fieldType(type)
+                .validationRule(rule)
+                .build();
+    }
+
+    private static ProductField options(String key, FieldType type) {
+        ProductField field = field(key, type, null);
+        field.setOptions(OPTIONS);
+        return field;
+    }
+}
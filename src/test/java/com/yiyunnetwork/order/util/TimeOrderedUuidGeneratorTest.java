@@ -0,0 +1,68 @@
+package com.yiyunnetwork.order.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeOrderedUuidGeneratorTest {
+
+    // 与 MySQL BINARY(16) 的排序一致：按无符号字节比较
+    private static final Comparator<UUID> BYTE_ORDER = Comparator
+            .comparing((UUID uuid) -> uuid.getMostSignificantBits(), Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    @Test
+    void carriesVersionVariantAndTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uuid = TimeOrderedUuidGenerator.next();
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        assertThat(uuid.getMostSignificantBits() >>> 16).isBetween(before, System.currentTimeMillis() + 1);
+    }
+
+    @Test
+    void sequentialIdsAreStrictlyIncreasingInByteOrder() {
+        UUID previous = TimeOrderedUuidGenerator.next();
+        for (int i = 0; i < 100000; i++) {
+            UUID current = TimeOrderedUuidGenerator.next();
+            assertThat(BYTE_ORDER.compare(current, previous)).isPositive();
+            previous = current;
+        }
+    }
+
+    @Test
+    void concurrentIdsAreUnique() throws Exception {
+        int threads = 8;
+        int perThread = 20000;
+        ConcurrentLinkedQueue<UUID> ids = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        ids.add(TimeOrderedUuidGenerator.next());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(ids.stream().map(UUID::getMostSignificantBits).distinct().count())
+                .isEqualTo((long) threads * perThread);
+    }
+}